@@ -0,0 +1,46 @@
+#!/bin/bash
+# JMH benchmarks for Attendance Management System (separate from build.sh)
+# Usage: ./bench-jmh.sh [JMH options, e.g. a benchmark regex or -f 2]
+# Sizes default to "500 5000 50000"; override with SIZES="500 5000" ./bench-jmh.sh
+
+JMH_VERSION=1.37
+LIB=bench/lib
+OUT=bench-bin/jmh
+DATA=bench-data
+SIZES=${SIZES:-"500 5000 50000"}
+MAVEN=https://repo1.maven.org/maven2
+
+fetch() {
+    if [ ! -f "$LIB/$(basename "$1")" ]; then
+        echo "⬇️  Fetching $(basename "$1")..."
+        curl -sfL -o "$LIB/$(basename "$1")" "$MAVEN/$1" || { echo "❌ Could not download $1"; exit 1; }
+    fi
+}
+
+mkdir -p "$LIB" "$OUT"
+fetch org/openjdk/jmh/jmh-core/$JMH_VERSION/jmh-core-$JMH_VERSION.jar
+fetch org/openjdk/jmh/jmh-generator-annprocess/$JMH_VERSION/jmh-generator-annprocess-$JMH_VERSION.jar
+fetch net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar
+fetch org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar
+
+# javac expands "dir/*" on the classpath but not on the processor path
+JARS=$(ls "$LIB"/*.jar | tr '\n' ':')
+
+echo "🔨 Building JMH benchmarks..."
+javac -encoding UTF-8 -d "$OUT" -cp "$JARS" -processorpath "$JARS" -sourcepath src \
+    src/AttendanceSystem/*.java src/AttendanceSystem/ui/*.java bench/jmh/AttendanceSystem/*.java
+
+if [ $? -ne 0 ]; then
+    echo "❌ Build failed!"
+    exit 1
+fi
+
+CP="$(pwd)/$OUT:$(pwd)/$LIB/*"
+for size in $SIZES; do
+    # The app reads its data files from the working directory
+    if [ ! -f "$DATA/$size/attendance_data.txt" ]; then
+        java -cp "$CP" AttendanceSystem.BenchmarkData "$size" "$DATA/$size" || exit 1
+    fi
+    echo "🚀 Running benchmarks with $size students..."
+    (cd "$DATA/$size" && java -cp "$CP" org.openjdk.jmh.Main -p students="$size" "$@") || exit 1
+done
@@ -0,0 +1,16 @@
+#!/bin/bash
+# Benchmark script for Attendance Management System
+# Usage: ./bench.sh [writers] [marksPerWriter] [students]
+
+echo "🔨 Building benchmarks..."
+
+mkdir -p bench-bin
+
+javac -d bench-bin -sourcepath src src/AttendanceSystem/*.java src/AttendanceSystem/ui/*.java bench/AttendanceSystem/bench/*.java
+
+if [ $? -ne 0 ]; then
+    echo "❌ Build failed!"
+    exit 1
+fi
+
+java -cp bench-bin AttendanceSystem.bench.LockContentionBenchmark "$@"
@@ -0,0 +1,143 @@
+package AttendanceSystem.bench;
+
+import AttendanceSystem.AttendanceSystem;
+import AttendanceSystem.Student;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs N writer processes against one shared data folder at the same time.
+ * Each writer marks its own session for a run of students and adds a student
+ * every ADD_EVERY marks, so journal appends, compactions and full saves all
+ * contend for the folder lock. Afterwards a fresh process loads the folder and
+ * counts marks and students that were lost to overwrites.
+ *
+ * Usage: LockContentionBenchmark [writers] [marksPerWriter] [students]
+ */
+public class LockContentionBenchmark {
+    private static final String COURSE = "BENCH";
+    private static final int ADD_EVERY = 50;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--writer")) {
+            runWriter(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--verify")) {
+            System.exit(verify(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3])));
+        }
+
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int marks = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int studentCount = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+
+        Path dir = Files.createTempDirectory("attendance-bench");
+        writeRoster(dir, studentCount);
+        System.out.println("Data folder: " + dir);
+        System.out.println(writers + " writers x " + marks + " marks, " + studentCount + " students");
+
+        long start = System.nanoTime();
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            processes.add(start(dir, "--writer", String.valueOf(i), String.valueOf(marks)));
+        }
+        for (Process process : processes) {
+            if (process.waitFor() != 0) {
+                System.out.println("Writer exited with " + process.exitValue());
+            }
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        long totalMarks = (long) writers * marks;
+        System.out.printf("Elapsed: %d ms (%.0f marks/s across all writers)%n",
+            elapsedMs, totalMarks * 1000.0 / Math.max(1, elapsedMs));
+
+        Process verifier = start(dir, "--verify", String.valueOf(writers), String.valueOf(marks), String.valueOf(studentCount));
+        verifier.waitFor();
+        if (verifier.exitValue() != 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void writeRoster(Path dir, int studentCount) throws IOException {
+        try (PrintWriter writer = new PrintWriter(dir.resolve("attendance_data.txt").toFile())) {
+            for (int i = 0; i < studentCount; i++) {
+                writer.println(new Student("Student " + i, "S" + i, COURSE).toFileString());
+            }
+        }
+    }
+
+    private static Process start(Path dir, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(absoluteClassPath());
+        command.add(LockContentionBenchmark.class.getName());
+        for (String arg : args) {
+            command.add(arg);
+        }
+        ProcessBuilder builder = new ProcessBuilder(command).directory(dir.toFile());
+        // Writers are quiet; the verifier reports
+        builder.redirectOutput(args[0].equals("--verify") ? ProcessBuilder.Redirect.INHERIT : ProcessBuilder.Redirect.DISCARD);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        return builder.start();
+    }
+
+    // Children run in the data folder, so relative class path entries must be resolved first
+    private static String absoluteClassPath() {
+        List<String> entries = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            entries.add(new File(entry).getAbsolutePath());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static String sessionKey(int writer) {
+        return "2026-01-05#W" + writer + "#BENCH";
+    }
+
+    private static void runWriter(int writer, int marks) {
+        AttendanceSystem system = new AttendanceSystem();
+        Student[] roster = system.getAllStudents();
+        String key = sessionKey(writer);
+        for (int k = 0; k < marks; k++) {
+            system.markAttendanceForSession(roster[k % roster.length].getId(), key, true);
+            if (k % ADD_EVERY == ADD_EVERY - 1) {
+                system.addStudent("Writer " + writer, "W" + writer + "-" + k, COURSE);
+            }
+        }
+        system.close();
+    }
+
+    private static int verify(int writers, int marks, int studentCount) {
+        AttendanceSystem system = new AttendanceSystem();
+        int expectedMarks = Math.min(marks, studentCount);
+        int expectedAdds = marks / ADD_EVERY;
+        long lostMarks = 0;
+        long lostStudents = 0;
+
+        for (int writer = 0; writer < writers; writer++) {
+            String key = sessionKey(writer);
+            int present = 0;
+            for (Student s : system.getAllStudents()) {
+                if (s.getAttendanceForSession(key)) present++;
+            }
+            int added = 0;
+            for (int k = ADD_EVERY - 1; k < marks; k += ADD_EVERY) {
+                if (system.findStudent("W" + writer + "-" + k) != null) added++;
+            }
+            lostMarks += expectedMarks - present;
+            lostStudents += expectedAdds - added;
+        }
+        system.close();
+
+        System.out.println("Lost marks: " + lostMarks + " of " + (long) writers * expectedMarks);
+        System.out.println("Lost students: " + lostStudents + " of " + (long) writers * expectedAdds);
+        return lostMarks == 0 && lostStudents == 0 ? 0 : 1;
+    }
+}
@@ -0,0 +1,97 @@
+package AttendanceSystem;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading, saving and querying the data folder in the working directory
+ * (see bench-jmh.sh). One AttendanceSystem is loaded per fork and shared by
+ * every benchmark except load, which builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AttendanceSystemBenchmark {
+    @Param("500")
+    public int students;    // Size of the data folder, set by bench-jmh.sh
+
+    private AttendanceSystem system;
+    private String[] ids;
+    private int nextId;
+    private int nextCourse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        system = new AttendanceSystem();
+        if (system.getStudentCount() != students) {
+            throw new IllegalStateException("Expected " + students + " students in the working directory, found "
+                + system.getStudentCount());
+        }
+        System.out.println("Loaded " + students + " students (~" + system.getEstimatedBytesPerStudent() + " bytes per student)");
+        Student[] all = system.getAllStudents();
+        ids = new String[all.length];
+        for (int i = 0; i < all.length; i++) {
+            ids[i] = all[(int) ((i * 2654435761L) % all.length)].getId(); // Scattered, not roster order
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.close();
+    }
+
+    @Benchmark
+    public int load() {
+        AttendanceSystem loaded = new AttendanceSystem();
+        loaded.close();
+        return loaded.getStudentCount();
+    }
+
+    @Benchmark
+    public void saveDataToFile() {
+        system.saveDataToFile();
+        system.flush();
+    }
+
+    @Benchmark
+    public boolean syncGlobalSessions() {
+        return system.syncGlobalSessions();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Set<String> getPastSessionKeysForCourse() {
+        String course = BenchmarkData.COURSES[nextCourse];
+        nextCourse = (nextCourse + 1) % BenchmarkData.COURSES.length;
+        return system.getPastSessionKeysForCourse(course);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Student findStudent() {
+        String id = ids[nextId];
+        nextId = nextId + 1 == ids.length ? 0 : nextId + 1;
+        return system.findStudent(id);
+    }
+
+    @Benchmark
+    public void generateReport() {
+        system.generateReport();
+    }
+}
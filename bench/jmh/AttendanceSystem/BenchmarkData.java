@@ -0,0 +1,81 @@
+package AttendanceSystem;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes a synthetic data folder for the JMH benchmarks, like
+ * generate_students.py but at any size: a weekday timetable for a few
+ * courses and students with every session of the term so far recorded,
+ * so loading does not have to add missing sessions.
+ *
+ * Usage: BenchmarkData <students> <directory>
+ */
+public class BenchmarkData {
+    static final String[] COURSES = {
+        "B.Tech (Computer Science & Engineering)",
+        "B.Tech (Electronics & Communication)",
+        "M.Tech (Artificial Intelligence)",
+        "MBA (Business Analytics)"
+    };
+    private static final String[] DAYS = {"MON", "TUE", "WED", "THU", "FRI"};
+    private static final String[] SLOTS = {"9:10-10:10", "10:10-11:10"};
+    private static final String[] SUBJECTS = {"DSA", "OS", "DBMS", "CN", "AI", "ML", "TOC", "SE", "R&P", "VAC"};
+
+    public static void main(String[] args) throws IOException {
+        int students = Integer.parseInt(args[0]);
+        Path dir = Paths.get(args[1]);
+        Files.createDirectories(dir);
+        Random random = new Random(students); // Same data for the same size
+
+        try (PrintWriter writer = new PrintWriter(dir.resolve("timetables_data.txt").toFile())) {
+            for (String course : COURSES) {
+                for (int d = 0; d < DAYS.length; d++) {
+                    for (int s = 0; s < SLOTS.length; s++) {
+                        String subject = SUBJECTS[(d * SLOTS.length + s) % SUBJECTS.length];
+                        writer.println(course + "|" + DAYS[d] + "|" + SLOTS[s] + "|" + subject + "|T" + s + "|" + (101 + d));
+                    }
+                }
+            }
+        }
+
+        String[] sessionKeys = termSessionKeys();
+        try (PrintWriter writer = new PrintWriter(dir.resolve("attendance_data.txt").toFile())) {
+            for (int i = 0; i < students; i++) {
+                Student student = new Student("Student " + i, String.format("STU%06d", i), COURSES[i % COURSES.length]);
+                for (String key : sessionKeys) {
+                    boolean present = random.nextInt(100) < 80;
+                    if (present && random.nextInt(100) == 0) {
+                        student.markSelfAttendance(key);
+                    } else {
+                        student.markAttendanceForSession(key, present);
+                    }
+                }
+                writer.println(student.toFileString());
+            }
+        }
+        System.out.println(students + " students x " + sessionKeys.length + " sessions written to " + dir);
+    }
+
+    // Same keys AttendanceSystem generates from the timetable up to today
+    private static String[] termSessionKeys() {
+        List<String> keys = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (LocalDate date = AttendanceSystem.TERM_START_DATE; !date.isAfter(today); date = date.plusDays(1)) {
+            int d = date.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue();
+            if (d >= DAYS.length) continue;
+            for (int s = 0; s < SLOTS.length; s++) {
+                keys.add(date + "#" + SLOTS[s] + "#" + SUBJECTS[(d * SLOTS.length + s) % SUBJECTS.length]);
+            }
+        }
+        return keys.toArray(new String[0]);
+    }
+}
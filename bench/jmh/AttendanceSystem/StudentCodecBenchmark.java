@@ -0,0 +1,66 @@
+package AttendanceSystem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing and formatting of single student records from the data folder
+ * in the working directory (see bench-jmh.sh).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StudentCodecBenchmark {
+    @Param("500")
+    public int students;    // Size of the data folder, set by bench-jmh.sh
+
+    private List<String> lines;
+    private Student[] parsed;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        lines = Files.readAllLines(Paths.get("attendance_data.txt"));
+        if (lines.size() != students) {
+            throw new IllegalStateException("Expected " + students + " students in the working directory, found " + lines.size());
+        }
+        parsed = new Student[lines.size()];
+        for (int i = 0; i < parsed.length; i++) {
+            parsed[i] = Student.fromFileString(lines.get(i));
+        }
+    }
+
+    // Cycles through the records so the benchmark is not tuned to one line
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == parsed.length ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public Student fromFileString() {
+        return Student.fromFileString(lines.get(nextIndex()));
+    }
+
+    @Benchmark
+    public String toFileString() {
+        return parsed[nextIndex()].toFileString();
+    }
+}
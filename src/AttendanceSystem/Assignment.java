@@ -45,8 +45,9 @@ public class Assignment implements Serializable {
     }
 
     public static Assignment fromFileString(String line) {
-        String[] parts = line.split("\\|");
-        if (parts.length >= 6) {
+        LineCursor cursor = LineCursor.of(line);
+        if (cursor.countFields('|') >= 6) {
+            String[] parts = cursor.nextFields('|', 6);
             return new Assignment(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5]);
         }
         return null;
@@ -0,0 +1,161 @@
+package AttendanceSystem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Crash-safe replacement of a whole data file.
+ * Lines (or raw big-endian values for binary files) are encoded into a buffer and written to a temp file in the
+ * same directory. commit() forces the temp file to disk and renames it over
+ * the target, so readers see either the old file or the complete new one,
+ * never a partially written file. Closing without commit() discards the temp file.
+ * Each thread keeps one spare buffer: a writer takes it while open and returns
+ * it on close, so a writer opened inside another one on the same thread gets its own.
+ */
+public class AtomicFileWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    // Same charset FileReader uses when the files are read back
+    private static final ThreadLocal<CharsetEncoder> ENCODERS = ThreadLocal.withInitial(() ->
+        Charset.defaultCharset().newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE));
+    private static final ThreadLocal<ByteBuffer> SPARE_BUFFERS = new ThreadLocal<>();
+
+    /** Writes the content of one file. */
+    public interface Body {
+        void writeTo(AtomicFileWriter out) throws IOException;
+    }
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final CharsetEncoder encoder = ENCODERS.get();
+    private final ByteBuffer buffer;
+    private boolean committed;
+    private boolean closed;
+
+    public AtomicFileWriter(String fileName) throws IOException {
+        target = Paths.get(fileName).toAbsolutePath();
+        // Opened like a regular new file so it gets the usual permissions, unlike Files.createTempFile
+        temp = target.resolveSibling(target.getFileName() + "." + System.nanoTime() + ".tmp");
+        channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        buffer = takeBuffer();
+    }
+
+    /**
+     * Replaces a file with whatever the body writes.
+     */
+    public static void write(String fileName, Body body) throws IOException {
+        try (AtomicFileWriter out = new AtomicFileWriter(fileName)) {
+            body.writeTo(out);
+            out.commit();
+        }
+    }
+
+    public void writeLine(CharSequence line) throws IOException {
+        write(line);
+        write(LINE_SEPARATOR);
+    }
+
+    public void write(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (encoder.encode(chars, buffer, true).isOverflow()) {
+            drain();
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            drain();
+        }
+    }
+
+    public void writeInt(int value) throws IOException {
+        if (buffer.remaining() < Integer.BYTES) drain();
+        buffer.putInt(value);
+    }
+
+    public void writeLong(long value) throws IOException {
+        if (buffer.remaining() < Long.BYTES) drain();
+        buffer.putLong(value);
+    }
+
+    public void writeBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) drain();
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Forces the written data to disk and moves it over the target file.
+     */
+    public void commit() throws IOException {
+        drain();
+        channel.force(true);
+        channel.close();
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+        syncDirectory();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (committed) return;
+            try {
+                channel.close();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } finally {
+            SPARE_BUFFERS.set(buffer);
+        }
+    }
+
+    private static ByteBuffer takeBuffer() {
+        ByteBuffer spare = SPARE_BUFFERS.get();
+        if (spare == null) return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        SPARE_BUFFERS.remove();
+        spare.clear();
+        return spare;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Makes the rename itself durable; not every platform allows opening a directory
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(target.getParent(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // The file contents are already on disk
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package AttendanceSystem;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One student's attendance per subject and per month, counted from the
+ * attendance bitsets and the course dictionary's parsed session keys.
+ * Students cache it until their attendance changes (see Student.getAttendanceBreakdown).
+ */
+public final class AttendanceBreakdown {
+    /**
+     * Attended and total sessions for one subject or month.
+     */
+    public static final class Row {
+        private final String label;
+        private final int attended;
+        private final int total;
+
+        private Row(String label, int attended, int total) {
+            this.label = label;
+            this.attended = attended;
+            this.total = total;
+        }
+
+        public String getLabel() { return label; }
+        public int getAttended() { return attended; }
+        public int getTotal() { return total; }
+
+        public double getPercentage() {
+            return total == 0 ? 0.0 : (attended * 100.0) / total;
+        }
+    }
+
+    private final List<Row> bySubject;
+    private final List<Row> byMonth;
+
+    private AttendanceBreakdown(List<Row> bySubject, List<Row> byMonth) {
+        this.bySubject = bySubject;
+        this.byMonth = byMonth;
+    }
+
+    /**
+     * Subjects in alphabetical order.
+     */
+    public List<Row> getBySubject() {
+        return bySubject;
+    }
+
+    /**
+     * Months in date order, labelled like "2025-12". Sessions without a date are left out.
+     */
+    public List<Row> getByMonth() {
+        return byMonth;
+    }
+
+    static AttendanceBreakdown of(SessionDictionary dictionary, BitSet recorded, BitSet present) {
+        String[] subjects;
+        int[] subjectAttended;
+        int[] subjectTotal;
+        Map<YearMonth, int[]> months = new TreeMap<>();     // Month -> {attended, total}
+
+        // Held so no subject can be added between sizing the counters and counting
+        synchronized (dictionary) {
+            subjects = dictionary.getSubjects();
+            subjectAttended = new int[subjects.length];
+            subjectTotal = new int[subjects.length];
+            for (int id = recorded.nextSetBit(0); id >= 0; id = recorded.nextSetBit(id + 1)) {
+                SessionDictionary.Session session = dictionary.sessionOf(id);
+                boolean isPresent = present.get(id);
+                subjectTotal[session.getSubjectId()]++;
+                if (isPresent) subjectAttended[session.getSubjectId()]++;
+
+                if (session.getDate() != null) {
+                    int[] month = months.computeIfAbsent(YearMonth.from(session.getDate()), m -> new int[2]);
+                    month[1]++;
+                    if (isPresent) month[0]++;
+                }
+            }
+        }
+
+        List<Row> bySubject = new ArrayList<>();
+        for (int i = 0; i < subjects.length; i++) {
+            if (subjectTotal[i] > 0) bySubject.add(new Row(subjects[i], subjectAttended[i], subjectTotal[i]));
+        }
+        bySubject.sort((a, b) -> a.label.compareTo(b.label));
+
+        List<Row> byMonth = new ArrayList<>(months.size());
+        for (Map.Entry<YearMonth, int[]> month : months.entrySet()) {
+            byMonth.add(new Row(month.getKey().toString(), month.getValue()[0], month.getValue()[1]));
+        }
+        return new AttendanceBreakdown(Collections.unmodifiableList(bySubject), Collections.unmodifiableList(byMonth));
+    }
+}
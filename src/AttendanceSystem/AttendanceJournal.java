@@ -0,0 +1,219 @@
+package AttendanceSystem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only journal of attendance changes.
+ * Each mark or removal is appended as one line instead of rewriting attendance_data.txt;
+ * the journal is replayed on load and compacted into the snapshot file
+ * once it grows past COMPACT_THRESHOLD entries.
+ * Methods are synchronized so the journal can be written from the I/O thread
+ * while the owning thread checks needsCompaction().
+ */
+public class AttendanceJournal {
+    private static final int COMPACT_THRESHOLD = 1000;
+
+    private final String journalFile;
+    private int entryCount;
+    private long readOffset; // Bytes of the journal already applied in memory
+
+    /**
+     * One attendance delta, applied in journal order. A mark sets one
+     * student's entry for a session:
+     *   STUDENT_ID|SESSION_KEY|PRESENT|SELF_MARKED|TIMESTAMP  (PRESENT is 1 or 0)
+     * An addition records a session as absent for every student of a course
+     * who has no entry for it yet, e.g. when one student is marked for an event:
+     *   COURSE|SESSION_KEY|+|0|TIMESTAMP
+     * A removal drops a session from every student of a course, e.g. when an
+     * event is deleted, so replaying earlier marks cannot bring it back:
+     *   COURSE|SESSION_KEY|-|0|TIMESTAMP
+     * Older clients read both as a mark for an unknown student and skip them.
+     */
+    public static class Entry {
+        public enum Kind { MARK, SESSION_ADDED, SESSION_REMOVED }
+
+        private static final String ADDED = "+";
+        private static final String REMOVED = "-";
+
+        private final Kind kind;
+        private final String target;    // Student ID for a mark, course otherwise
+        private final String sessionKey;
+        private final boolean present;
+        private final boolean selfMarked;
+        private final long timestamp;
+
+        public Entry(String studentId, String sessionKey, boolean present, boolean selfMarked, long timestamp) {
+            this(Kind.MARK, studentId, sessionKey, present, selfMarked, timestamp);
+        }
+
+        private Entry(Kind kind, String target, String sessionKey, boolean present, boolean selfMarked, long timestamp) {
+            this.kind = kind;
+            this.target = target;
+            this.sessionKey = sessionKey;
+            this.present = present;
+            this.selfMarked = selfMarked;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * A session recorded as absent for every student of a course without an entry for it.
+         */
+        public static Entry sessionAdded(String course, String sessionKey, long timestamp) {
+            return new Entry(Kind.SESSION_ADDED, course, sessionKey, false, false, timestamp);
+        }
+
+        /**
+         * Removal of a session from every student of a course.
+         */
+        public static Entry sessionRemoved(String course, String sessionKey, long timestamp) {
+            return new Entry(Kind.SESSION_REMOVED, course, sessionKey, false, false, timestamp);
+        }
+
+        public Kind getKind() { return kind; }
+        public String getStudentId() { return kind == Kind.MARK ? target : null; }
+        public String getCourse() { return kind == Kind.MARK ? null : target; }
+        public String getSessionKey() { return sessionKey; }
+        public boolean isPresent() { return present; }
+        public boolean isSelfMarked() { return selfMarked; }
+        public long getTimestamp() { return timestamp; }
+
+        public String toFileString() {
+            String state = kind == Kind.SESSION_ADDED ? ADDED : kind == Kind.SESSION_REMOVED ? REMOVED : present ? "1" : "0";
+            return target + "|" + sessionKey + "|" + state + "|" + (selfMarked ? "1" : "0") + "|" + timestamp;
+        }
+
+        public static Entry fromFileString(String line) {
+            LineCursor cursor = LineCursor.of(line);
+            if (cursor.countFields('|') >= 5) {
+                String target = cursor.nextField('|');
+                String sessionKey = cursor.nextField('|');
+                cursor.next('|');
+                Kind kind = cursor.fieldEquals(ADDED) ? Kind.SESSION_ADDED
+                    : cursor.fieldEquals(REMOVED) ? Kind.SESSION_REMOVED : Kind.MARK;
+                boolean present = cursor.fieldEquals("1");
+                cursor.next('|');
+                boolean selfMarked = cursor.fieldEquals("1");
+                try {
+                    return new Entry(kind, target, sessionKey, present, selfMarked, Long.parseLong(cursor.nextField('|')));
+                } catch (NumberFormatException e) {
+                    return null; // Torn or corrupt line, skip it
+                }
+            }
+            return null;
+        }
+    }
+
+    public AttendanceJournal(String journalFile) {
+        this.journalFile = journalFile;
+        this.entryCount = 0;
+        this.readOffset = 0;
+    }
+
+    /**
+     * Appends a group of entries and forces them to disk with a single fsync.
+     */
+    public synchronized void append(List<Entry> entries) {
+        if (entries.isEmpty()) return;
+
+        try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+            StringBuilder sb = new StringBuilder();
+            for (Entry entry : entries) {
+                sb.append(entry.toFileString()).append(System.lineSeparator());
+            }
+            byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+            long start = out.getChannel().size();
+            out.write(bytes);
+            out.getChannel().force(false);
+            entryCount += entries.size();
+            // Our own entries are already applied; skip them on the next readNew()
+            // unless another writer appended something we have not seen yet
+            if (start == readOffset) {
+                readOffset = start + bytes.length;
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing attendance journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads every entry in append order. Also resets the entry count
+     * so compaction decisions reflect what is on disk.
+     */
+    public synchronized List<Entry> readAll() {
+        readOffset = 0;
+        entryCount = 0;
+        return readNew();
+    }
+
+    /**
+     * Reads only the entries appended since the last read. A trailing line
+     * without a newline is still being written and is left for next time.
+     * If the journal shrank (compacted by another client) it is read from the start.
+     */
+    public synchronized List<Entry> readNew() {
+        List<Entry> entries = new ArrayList<>();
+        File file = new File(journalFile);
+        if (!file.exists()) {
+            readOffset = 0;
+            entryCount = 0;
+            return entries;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long length = raf.length();
+            if (length < readOffset) {
+                readOffset = 0;
+                entryCount = 0;
+            }
+            if (length == readOffset) return entries;
+
+            byte[] bytes = new byte[(int) (length - readOffset)];
+            raf.seek(readOffset);
+            raf.readFully(bytes);
+
+            int lastNewline = -1;
+            for (int i = bytes.length - 1; i >= 0; i--) {
+                if (bytes[i] == '\n') {
+                    lastNewline = i;
+                    break;
+                }
+            }
+            if (lastNewline == -1) return entries;
+
+            String chunk = new String(bytes, 0, lastNewline + 1, StandardCharsets.UTF_8);
+            for (String line : chunk.split("\\r?\\n")) {
+                Entry entry = Entry.fromFileString(line);
+                if (entry != null) entries.add(entry);
+            }
+            readOffset += lastNewline + 1;
+        } catch (IOException e) {
+            System.out.println("Error reading attendance journal: " + e.getMessage());
+        }
+        entryCount += entries.size();
+        return entries;
+    }
+
+    public synchronized boolean needsCompaction() {
+        return entryCount >= COMPACT_THRESHOLD;
+    }
+
+    public synchronized int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Truncates the journal. Only call after the snapshot has been written.
+     */
+    public synchronized void clear() {
+        try (FileOutputStream out = new FileOutputStream(journalFile, false)) {
+            out.getChannel().force(false);
+        } catch (IOException e) {
+            System.out.println("Error clearing attendance journal: " + e.getMessage());
+        }
+        entryCount = 0;
+        readOffset = 0;
+    }
+}
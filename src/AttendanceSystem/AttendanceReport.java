@@ -0,0 +1,419 @@
+package AttendanceSystem;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Attendance report over all students, written as text, CSV or JSON.
+ * Course and per-subject totals are gathered in one pass over the attendance
+ * bitsets, with courses (and large rosters in halves) spread over the common
+ * fork/join pool. Student rows are then streamed to the file one at a time,
+ * so the report is never held in memory as a whole.
+ */
+public final class AttendanceReport {
+    public enum Format {
+        TEXT("txt"), CSV("csv"), JSON("json");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public static final double LOW_ATTENDANCE = 75.0;
+    private static final int SPLIT_THRESHOLD = 2048;    // Students summed by one task before splitting
+    private static final String RULE = "========================================";
+    private static final String STUDENT_RULE = "----------------------------------";
+
+    private final Iterable<Student> students;
+    private final List<CourseTotals> courses = new ArrayList<>();
+    private final CourseTotals overall = new CourseTotals("All Courses", new String[0]);
+    private final StringBuilder line = new StringBuilder(256);
+
+    private AttendanceReport(Iterable<Student> students) {
+        this.students = students;
+    }
+
+    /**
+     * Sums up the store. Students must not change until the report is written.
+     */
+    static AttendanceReport of(StudentStore store) {
+        AttendanceReport report = new AttendanceReport(store);
+
+        List<RosterTask> tasks = new ArrayList<>();
+        for (String course : store.getCourses()) {
+            List<Student> roster = store.getStudentsInCourse(course);
+            tasks.add(new RosterTask(SubjectIndex.of(SessionDictionary.forCourse(course)), roster, 0, roster.size()));
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        for (RosterTask task : tasks) {
+            CourseTotals totals = task.join();
+            report.courses.add(totals);
+            report.overall.add(totals);
+        }
+        report.courses.sort((a, b) -> a.name.compareTo(b.name));
+        return report;
+    }
+
+    public void writeTo(String fileName, Format format) throws IOException {
+        AtomicFileWriter.write(fileName, out -> {
+            switch (format) {
+                case CSV:
+                    writeCsv(out);
+                    break;
+                case JSON:
+                    writeJson(out);
+                    break;
+                default:
+                    writeText(out);
+            }
+        });
+    }
+
+    private void writeText(AtomicFileWriter out) throws IOException {
+        out.writeLine(RULE);
+        out.writeLine("    ATTENDANCE REPORT");
+        out.writeLine("    Date: " + today());
+        out.writeLine(RULE);
+        out.writeLine("");
+
+        if (overall.students == 0) {
+            out.writeLine("No students registered.");
+            return;
+        }
+
+        out.writeLine("SUMMARY:");
+        out.writeLine("Total Students: " + overall.students);
+        out.writeLine("Average Attendance: " + String.format(Locale.ROOT, "%.2f%%", overall.averagePercentage()));
+        out.writeLine("Students Below 75%: " + overall.belowThreshold);
+        out.writeLine("");
+        out.writeLine(RULE);
+        out.writeLine("");
+        out.writeLine("COURSE SUMMARY:");
+        for (CourseTotals course : courses) {
+            out.writeLine(STUDENT_RULE);
+            out.writeLine("Course: " + course.name);
+            out.writeLine("Students: " + course.students + " (" + course.belowThreshold + " below 75%)");
+            out.writeLine("Average Attendance: " + String.format(Locale.ROOT, "%.2f%%", course.averagePercentage()));
+            for (int i = 0; i < course.subjects.length; i++) {
+                line.setLength(0);
+                line.append("  ").append(course.subjects[i]).append(": ")
+                    .append(course.subjectAttended[i]).append('/').append(course.subjectSessions[i]).append(" (");
+                appendPercentage(line, course.subjectAttended[i], course.subjectSessions[i]);
+                out.writeLine(line.append("%)"));
+            }
+        }
+        out.writeLine("");
+        out.writeLine(RULE);
+        out.writeLine("");
+        out.writeLine("INDIVIDUAL ATTENDANCE:");
+        out.writeLine(STUDENT_RULE);
+
+        for (Student s : students) {
+            int attended = s.getTotalSessionsAttended();
+            int total = s.getTotalSessions();
+            line.setLength(0);
+            line.append("Student ID: ").append(s.getId()).append(System.lineSeparator())
+                .append("Name: ").append(s.getName()).append(System.lineSeparator())
+                .append("Course: ").append(s.getCourse()).append(System.lineSeparator())
+                .append("Total Sessions: ").append(total).append(System.lineSeparator())
+                .append("Sessions Attended: ").append(attended).append(System.lineSeparator())
+                .append("Attendance: ");
+            appendPercentage(line, attended, total);
+            line.append('%');
+            if (isLow(attended, total)) {
+                line.append(" [LOW ATTENDANCE - WARNING]");
+            }
+            line.append(System.lineSeparator()).append(STUDENT_RULE);
+            out.writeLine(line);
+        }
+
+        out.writeLine("");
+        out.writeLine("Report Generated Successfully!");
+    }
+
+    private void writeCsv(AtomicFileWriter out) throws IOException {
+        out.writeLine("Student_ID,Student_Name,Course,Total_Sessions,Sessions_Attended,Attendance_Percentage,Low_Attendance");
+        for (Student s : students) {
+            int attended = s.getTotalSessionsAttended();
+            int total = s.getTotalSessions();
+            line.setLength(0);
+            appendCsv(line, s.getId()).append(',');
+            appendCsv(line, s.getName()).append(',');
+            appendCsv(line, s.getCourse()).append(',');
+            line.append(total).append(',').append(attended).append(',');
+            appendPercentage(line, attended, total);
+            line.append(',').append(isLow(attended, total) ? "Yes" : "No");
+            out.writeLine(line);
+        }
+    }
+
+    private void writeJson(AtomicFileWriter out) throws IOException {
+        line.setLength(0);
+        line.append("{\"date\":");
+        appendJson(line, today());
+        line.append(",\"summary\":");
+        appendJson(line, overall);
+        line.append(",\"courses\":[");
+        for (int c = 0; c < courses.size(); c++) {
+            CourseTotals course = courses.get(c);
+            if (c > 0) line.append(',');
+            line.append("{\"course\":");
+            appendJson(line, course.name);
+            line.append(",\"summary\":");
+            appendJson(line, course);
+            line.append(",\"subjects\":[");
+            for (int i = 0; i < course.subjects.length; i++) {
+                if (i > 0) line.append(',');
+                line.append("{\"subject\":");
+                appendJson(line, course.subjects[i]);
+                line.append(",\"sessionsAttended\":").append(course.subjectAttended[i])
+                    .append(",\"totalSessions\":").append(course.subjectSessions[i])
+                    .append(",\"attendancePercentage\":");
+                appendPercentage(line, course.subjectAttended[i], course.subjectSessions[i]);
+                line.append('}');
+            }
+            line.append("]}");
+        }
+        line.append("],\"students\":[");
+        out.writeLine(line);
+
+        boolean first = true;
+        for (Student s : students) {
+            int attended = s.getTotalSessionsAttended();
+            int total = s.getTotalSessions();
+            line.setLength(0);
+            if (!first) line.append(',');
+            first = false;
+            line.append("{\"id\":");
+            appendJson(line, s.getId());
+            line.append(",\"name\":");
+            appendJson(line, s.getName());
+            line.append(",\"course\":");
+            appendJson(line, s.getCourse());
+            line.append(",\"totalSessions\":").append(total)
+                .append(",\"sessionsAttended\":").append(attended)
+                .append(",\"attendancePercentage\":");
+            appendPercentage(line, attended, total);
+            line.append(",\"lowAttendance\":").append(isLow(attended, total)).append('}');
+            out.writeLine(line);
+        }
+        out.writeLine("]}");
+    }
+
+    private static String today() {
+        return LocalDate.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy"));
+    }
+
+    // Same test as getAttendancePercentage() < LOW_ATTENDANCE, without the division
+    static boolean isLow(int attended, int total) {
+        return attended * 100.0 < LOW_ATTENDANCE * total || total == 0;
+    }
+
+    /**
+     * Appends attended / total as a percentage with two decimals, the way
+     * String.format("%.2f") prints getAttendancePercentage(), without a Formatter.
+     */
+    static StringBuilder appendPercentage(StringBuilder sb, long attended, long total) {
+        long hundredths = total == 0 ? 0 : (attended * 20000 + total) / (2 * total); // Half up
+        sb.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) sb.append('0');
+        return sb.append(fraction);
+    }
+
+    private static StringBuilder appendCsv(StringBuilder sb, String value) {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) return sb.append(value);
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    private static void appendJson(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static void appendJson(StringBuilder sb, CourseTotals totals) {
+        sb.append("{\"students\":").append(totals.students)
+            .append(",\"averageAttendance\":").append(String.format(Locale.ROOT, "%.2f", totals.averagePercentage()))
+            .append(",\"studentsBelow75\":").append(totals.belowThreshold)
+            .append(",\"sessionsAttended\":").append(totals.attended)
+            .append(",\"totalSessions\":").append(totals.sessions)
+            .append('}');
+    }
+
+    /**
+     * Subject of every session ID in a course dictionary, renumbered so the
+     * subjects are in name order. Taken once before the course is summed.
+     */
+    private static final class SubjectIndex {
+        final String course;
+        final String[] subjects;    // Sorted by name
+        final int[] subjectOfId;
+
+        private SubjectIndex(String course, String[] subjects, int[] subjectOfId) {
+            this.course = course;
+            this.subjects = subjects;
+            this.subjectOfId = subjectOfId;
+        }
+
+        static SubjectIndex of(SessionDictionary dictionary) {
+            String[] names;
+            int[] subjectOfId;
+            synchronized (dictionary) { // Subjects and session IDs as of the same moment
+                names = dictionary.getSubjects();
+                subjectOfId = dictionary.getSubjectIdsBySession();
+            }
+
+            Integer[] order = new Integer[names.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> names[a].compareTo(names[b]));
+            String[] subjects = new String[names.length];
+            int[] position = new int[names.length];
+            for (int i = 0; i < order.length; i++) {
+                subjects[i] = names[order[i]];
+                position[order[i]] = i;
+            }
+            for (int id = 0; id < subjectOfId.length; id++) {
+                subjectOfId[id] = position[subjectOfId[id]];
+            }
+            return new SubjectIndex(dictionary.getCourse(), subjects, subjectOfId);
+        }
+    }
+
+    private static final class CourseTotals {
+        final String name;
+        final String[] subjects;
+        final long[] subjectAttended;
+        final long[] subjectSessions;
+        int students;
+        int belowThreshold;
+        double percentageSum;
+        long attended;
+        long sessions;
+
+        CourseTotals(String name, String[] subjects) {
+            this.name = name;
+            this.subjects = subjects;
+            this.subjectAttended = new long[subjects.length];
+            this.subjectSessions = new long[subjects.length];
+        }
+
+        double averagePercentage() {
+            return students == 0 ? 0.0 : percentageSum / students;
+        }
+
+        // Course-wide fields only; subjects are added up only between halves of the same course
+        void add(CourseTotals other) {
+            students += other.students;
+            belowThreshold += other.belowThreshold;
+            percentageSum += other.percentageSum;
+            attended += other.attended;
+            sessions += other.sessions;
+        }
+
+        void addSubjects(CourseTotals other) {
+            for (int i = 0; i < subjects.length; i++) {
+                subjectAttended[i] += other.subjectAttended[i];
+                subjectSessions[i] += other.subjectSessions[i];
+            }
+        }
+    }
+
+    // Sums students [from, to) of one course roster
+    private static final class RosterTask extends RecursiveTask<CourseTotals> {
+        private final SubjectIndex index;
+        private final List<Student> roster;
+        private final int from;
+        private final int to;
+
+        RosterTask(SubjectIndex index, List<Student> roster, int from, int to) {
+            this.index = index;
+            this.roster = roster;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CourseTotals compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                RosterTask upper = new RosterTask(index, roster, middle, to);
+                upper.fork();
+                CourseTotals totals = new RosterTask(index, roster, from, middle).compute();
+                CourseTotals rest = upper.join();
+                totals.add(rest);
+                totals.addSubjects(rest);
+                return totals;
+            }
+
+            CourseTotals totals = new CourseTotals(index.course, index.subjects);
+            int[] subjectOfId = index.subjectOfId;
+            for (int i = from; i < to; i++) {
+                Student s = roster.get(i);
+                int attended = s.getTotalSessionsAttended();
+                int total = s.getTotalSessions();
+                totals.students++;
+                totals.attended += attended;
+                totals.sessions += total;
+                totals.percentageSum += s.getAttendancePercentage();
+                if (isLow(attended, total)) totals.belowThreshold++;
+
+                BitSet recorded = s.getRecordedSessionIds();
+                for (int id = recorded.nextSetBit(0); id >= 0 && id < subjectOfId.length; id = recorded.nextSetBit(id + 1)) {
+                    totals.subjectSessions[subjectOfId[id]]++;
+                }
+                BitSet present = s.getPresentSessionIds();
+                for (int id = present.nextSetBit(0); id >= 0 && id < subjectOfId.length; id = present.nextSetBit(id + 1)) {
+                    totals.subjectAttended[subjectOfId[id]]++;
+                }
+            }
+            return totals;
+        }
+    }
+}
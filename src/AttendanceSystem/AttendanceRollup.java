@@ -0,0 +1,259 @@
+package AttendanceSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Running attendance totals for one course, or for all courses. StudentStore
+ * counts each student in on add and out on remove, and the student reports
+ * every mark in between, so reading the totals never walks the students.
+ * Per-session present and recorded counts are kept for course rollups only,
+ * indexed by the course's SessionDictionary IDs.
+ *
+ * Course rollups also index their students by attendance percentage in
+ * 0.1%-wide buckets, so "below X%" walks only the buckets under X.
+ */
+public final class AttendanceRollup {
+    private static final int BUCKETS = 1001;   // Tenths of a percent, the last one for exactly 100%
+    private static final Comparator<Student> LOWEST_FIRST =
+        Comparator.comparingDouble(Student::getAttendancePercentage).thenComparing(Student::getId);
+
+    private final SessionDictionary dictionary;     // Null for the all-course rollup
+    private final AttendanceRollup parent;          // All-course rollup a course also counts in
+    private int students;
+    private int belowThreshold;
+    private double percentageSum;
+    private long attended;
+    private long sessions;
+    private int[] sessionPresent = new int[0];
+    private int[] sessionRecorded = new int[0];
+    private final List<Set<Student>> buckets;      // Course rollups only; empty buckets stay null
+    private Runnable onChange;                      // Called once after each change to the student totals
+
+    AttendanceRollup(SessionDictionary dictionary, AttendanceRollup parent) {
+        this.dictionary = dictionary;
+        this.parent = parent;
+        this.buckets = dictionary == null ? null : new ArrayList<>(Collections.nCopies(BUCKETS, null));
+    }
+
+    public int getStudentCount() {
+        return students;
+    }
+
+    /**
+     * Mean of the students' attendance percentages, 0 without students.
+     */
+    public double getAverageAttendance() {
+        return students == 0 ? 0.0 : percentageSum / students;
+    }
+
+    public int getStudentsBelowThreshold() {
+        return belowThreshold;
+    }
+
+    public long getSessionsAttended() {
+        return attended;
+    }
+
+    public long getTotalSessions() {
+        return sessions;
+    }
+
+    /**
+     * Students of the course marked present for a session.
+     */
+    public int getPresentCount(String sessionKey) {
+        int id = dictionary == null ? -1 : dictionary.idOf(sessionKey);
+        return id >= 0 && id < sessionPresent.length ? sessionPresent[id] : 0;
+    }
+
+    /**
+     * Students of the course with an entry (present or absent) for a session.
+     */
+    public int getRecordedCount(String sessionKey) {
+        int id = dictionary == null ? -1 : dictionary.idOf(sessionKey);
+        return id >= 0 && id < sessionRecorded.length ? sessionRecorded[id] : 0;
+    }
+
+    void add(Student student) {
+        countStudent(student.getTotalSessionsAttended(), student.getTotalSessions(), 1);
+        index(student, student.getTotalSessionsAttended(), student.getTotalSessions(), 1);
+        countSessions(student.getRecordedSessionIds(), student.getPresentSessionIds(), 1);
+        fireChange();
+    }
+
+    void remove(Student student) {
+        countStudent(student.getTotalSessionsAttended(), student.getTotalSessions(), -1);
+        index(student, student.getTotalSessionsAttended(), student.getTotalSessions(), -1);
+        countSessions(student.getRecordedSessionIds(), student.getPresentSessionIds(), -1);
+        fireChange();
+    }
+
+    // A counted student's totals went from oldAttended/oldTotal to its current ones
+    void studentChanged(Student student, int oldAttended, int oldTotal) {
+        int attended = student.getTotalSessionsAttended();
+        int total = student.getTotalSessions();
+        countStudent(oldAttended, oldTotal, -1);
+        countStudent(attended, total, 1);
+        if (bucketOf(oldAttended, oldTotal) != bucketOf(attended, total)) {
+            index(student, oldAttended, oldTotal, -1);
+            index(student, attended, total, 1);
+        }
+        fireChange();
+    }
+
+    void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    void sessionChanged(int sessionId, int recordedDelta, int presentDelta) {
+        if (dictionary == null) return;
+        ensureSession(sessionId);
+        sessionRecorded[sessionId] += recordedDelta;
+        sessionPresent[sessionId] += presentDelta;
+    }
+
+    // Sessions newly recorded as absent for one student
+    void sessionsRecorded(BitSet sessionIds) {
+        if (dictionary == null) return;
+        ensureSession(sessionIds.length() - 1);
+        for (int id = sessionIds.nextSetBit(0); id >= 0; id = sessionIds.nextSetBit(id + 1)) {
+            sessionRecorded[id]++;
+        }
+    }
+
+    private void countStudent(int studentAttended, int studentTotal, int sign) {
+        students += sign;
+        attended += sign * studentAttended;
+        sessions += sign * studentTotal;
+        percentageSum += sign * (studentTotal == 0 ? 0.0 : (studentAttended * 100.0) / studentTotal);
+        if (AttendanceReport.isLow(studentAttended, studentTotal)) belowThreshold += sign;
+        if (students == 0) percentageSum = 0.0; // Drop rounding left over from the removed students
+        if (parent != null) parent.countStudent(studentAttended, studentTotal, sign);
+    }
+
+    // Once per change, after every delta is in, for this rollup and the ones it feeds
+    private void fireChange() {
+        if (onChange != null) onChange.run();
+        if (parent != null) parent.fireChange();
+    }
+
+    // Puts the student in (sign 1) or takes it out of (sign -1) the bucket for these totals
+    private void index(Student student, int studentAttended, int studentTotal, int sign) {
+        if (buckets == null) return;
+        int bucket = bucketOf(studentAttended, studentTotal);
+        Set<Student> members = buckets.get(bucket);
+        if (sign > 0) {
+            if (members == null) buckets.set(bucket, members = new HashSet<>());
+            members.add(student);
+        } else if (members != null) {
+            members.remove(student);
+            if (members.isEmpty()) buckets.set(bucket, null);
+        }
+    }
+
+    private static int bucketOf(int attended, int total) {
+        return total == 0 ? 0 : (int) (attended * 1000L / total);
+    }
+
+    // Buckets below this one hold only students under the threshold; the
+    // ones from here to lastBucket() are checked student by student
+    private static int firstPartialBucket(double threshold) {
+        return (int) Math.max(0, Math.min(BUCKETS, Math.floor(threshold * 10) - 1));
+    }
+
+    private static int lastBucket(double threshold) {
+        return (int) Math.max(-1, Math.min(BUCKETS - 1, Math.floor(threshold * 10)));
+    }
+
+    /**
+     * Number of students in the given course rollups below a percentage.
+     */
+    static int countBelow(List<AttendanceRollup> rollups, double threshold) {
+        int count = 0;
+        int partial = firstPartialBucket(threshold);
+        int last = lastBucket(threshold);
+        for (AttendanceRollup rollup : rollups) {
+            for (int b = 0; b <= last; b++) {
+                Set<Student> members = rollup.buckets.get(b);
+                if (members == null) continue;
+                if (b < partial) {
+                    count += members.size();
+                } else {
+                    for (Student s : members) {
+                        if (s.getAttendancePercentage() < threshold) count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Students in the given course rollups below a percentage, lowest first
+     * (ties by ID). Read lazily, one bucket at a time.
+     */
+    static Iterator<Student> iterateBelow(List<AttendanceRollup> rollups, double threshold) {
+        return new Iterator<Student>() {
+            private final int partial = firstPartialBucket(threshold);
+            private final int last = lastBucket(threshold);
+            private int bucket = -1;
+            private Student[] current = new Student[0];
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == current.length && bucket < last) {
+                    loadBucket(++bucket);
+                }
+                return next < current.length;
+            }
+
+            @Override
+            public Student next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return current[next++];
+            }
+
+            private void loadBucket(int b) {
+                List<Student> members = new ArrayList<>();
+                for (AttendanceRollup rollup : rollups) {
+                    Set<Student> inCourse = rollup.buckets.get(b);
+                    if (inCourse == null) continue;
+                    for (Student s : inCourse) {
+                        if (b < partial || s.getAttendancePercentage() < threshold) members.add(s);
+                    }
+                }
+                members.sort(LOWEST_FIRST);
+                current = members.toArray(new Student[0]);
+                next = 0;
+            }
+        };
+    }
+
+    private void countSessions(BitSet recorded, BitSet present, int sign) {
+        if (dictionary == null) return;
+        ensureSession(recorded.length() - 1);
+        for (int id = recorded.nextSetBit(0); id >= 0; id = recorded.nextSetBit(id + 1)) {
+            sessionRecorded[id] += sign;
+        }
+        for (int id = present.nextSetBit(0); id >= 0; id = present.nextSetBit(id + 1)) {
+            sessionPresent[id] += sign;
+        }
+    }
+
+    private void ensureSession(int sessionId) {
+        if (dictionary == null || sessionId < sessionRecorded.length) return;
+        int length = Math.max(sessionId + 1, sessionRecorded.length * 2);
+        sessionRecorded = Arrays.copyOf(sessionRecorded, length);
+        sessionPresent = Arrays.copyOf(sessionPresent, length);
+    }
+}
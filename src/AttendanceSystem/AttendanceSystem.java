@@ -1,9 +1,11 @@
 package AttendanceSystem;
 
 import java.io.*;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.HashSet;
 import java.util.Set;
@@ -11,47 +13,106 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 // Attendance System class with timetable
 public class AttendanceSystem {
-    private Student[] students;
-    private int studentCount;
-    private static final int MAX_STUDENTS = 500;
+    private StudentStore students;
     private static final String DATA_FILE = "attendance_data.txt";
+    private static final String BINARY_DATA_FILE = "attendance_data.bin";
+    private static final String JOURNAL_FILE = "attendance_journal.txt";
     private static final String TIMETABLE_FILE = "timetables_data.txt";
     private static final String REPORT_FILE = "attendance_report.txt";
     private static final String ASSIGNMENTS_FILE = "assignments_data.txt";
     private static final String SUBMISSIONS_FILE = "submissions_data.txt";
     private static final String EVENTS_FILE = "events_data.txt";
     private static final String EVENT_PHOTOS_FILE = "event_photos.txt";
-    private static final LocalDate TERM_START_DATE = LocalDate.of(2025, 12, 1);
+    // Package-private, like saveDataToFile, syncGlobalSessions and getPastSessionKeysForCourse, for bench/jmh
+    static final LocalDate TERM_START_DATE = LocalDate.of(2025, 12, 1);
+    
+    // Run with -Dattendance.binaryData=true to keep student data in BINARY_DATA_FILE instead
+    private static final boolean BINARY_DATA = Boolean.getBoolean("attendance.binaryData");
     
     // Map course name -> List of sessions
     private Map<String, ArrayList<ClassSession>> courseTimetables;
+    // Day-of-week indexes over courseTimetables, kept in step by add/clear/load
+    private Map<DayOfWeek, List<ClassSession>> sessionsByDay;
+    private Map<String, Map<DayOfWeek, List<ClassSession>>> courseSessionsByDay;
     private Set<String> knownSessionKeys;
+    private Map<String, PastSessionKeys> pastSessionKeyCache; // Course -> generated keys up to a date
     
     private List<Assignment> assignments;
     private List<AssignmentSubmission> submissions;
     private List<Event> events;
     private List<EventPhoto> eventPhotos;
+    private AttendanceJournal journal;
+    private DataFileTracker fileTracker;
+    private Map<String, Long> recordHashes; // Student ID -> hash of its last loaded line
+    private Set<String> changedStudentIds;  // Added or edited here since the last save
+    private Set<String> removedStudentIds;  // Removed here since the last save
+    private final DataFolderLock folderLock;
+    private final String dataFile; // DATA_FILE or BINARY_DATA_FILE
+    private List<Consumer<Set<DataChange>>> changeListeners;
+    private List<Runnable> totalsListeners;
+    private DataDirectoryWatcher watcher;
+    private final ExecutorService ioExecutor;
+    private final Thread shutdownHook;
+    private final AtomicBoolean compactionQueued = new AtomicBoolean(); // Cleared by the queued rewrite
+    private int studentSnapshotsRead;     // Snapshots carrying student data (I/O thread)
+    private int studentSnapshotsApplied;  // Of those, applied to the model (owning thread)
     
+    /**
+     * Loads every data file. This can take a while with large files, so the
+     * GUI constructs the system on a background thread. After that the object
+     * belongs to one thread (the EDT); disk writes are queued to a private I/O thread.
+     */
     public AttendanceSystem() {
-        students = new Student[MAX_STUDENTS];
-        studentCount = 0;
+        changeListeners = new CopyOnWriteArrayList<>();
+        totalsListeners = new CopyOnWriteArrayList<>();
+        students = newStudentStore();
         courseTimetables = new HashMap<>();
+        sessionsByDay = new EnumMap<>(DayOfWeek.class);
+        courseSessionsByDay = new HashMap<>();
         knownSessionKeys = new HashSet<>();
+        pastSessionKeyCache = new HashMap<>();
         assignments = new ArrayList<>();
         submissions = new ArrayList<>();
         events = new ArrayList<>();
         eventPhotos = new ArrayList<>();
+        journal = new AttendanceJournal(JOURNAL_FILE);
+        fileTracker = new DataFileTracker();
+        recordHashes = new HashMap<>();
+        changedStudentIds = new HashSet<>();
+        removedStudentIds = new HashSet<>();
+        folderLock = DataFolderLock.forWorkingDirectory();
+        dataFile = BINARY_DATA ? BINARY_DATA_FILE : DATA_FILE;
         
-        initializeTimetable(); // Load defaults first
-        loadTimetables();      // Override/Extend with saved data
-        loadDataFromFile();    // Load students
-        loadAssignments();     // Load assignments
-        loadSubmissions();     // Load submissions
-        loadEvents();          // Load events
-        loadEventPhotos();     // Load event photos
+        // Disk writes and reload reads run here, one at a time in submission order
+        ioExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "attendance-io");
+            t.setDaemon(true);
+            return t;
+        });
+        // Let queued writes finish even if the app exits through System.exit
+        shutdownHook = new Thread(this::flush, "attendance-io-flush");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        
+        initializeTimetable();              // Load defaults first
+        convertDataFile();                  // After switching between text and binary data
+        applySnapshot(readSnapshot(true));  // Timetables, students, assignments, events, photos
         
         // After loading students, populate past sessions for all known courses
         populatePastSessions();
@@ -60,8 +121,8 @@ public class AttendanceSystem {
     public String[] getAllCourses() {
         Set<String> courses = new HashSet<>();
         // Add courses from students
-        for (int i = 0; i < studentCount; i++) {
-            courses.add(students[i].getCourse());
+        for (String course : students.getCourses()) {
+            courses.add(course);
         }
         // Add courses from timetables
         courses.addAll(courseTimetables.keySet());
@@ -72,7 +133,11 @@ public class AttendanceSystem {
     }
 
     private String getDayString(LocalDate date) {
-        switch (date.getDayOfWeek()) {
+        return getDayString(date.getDayOfWeek());
+    }
+    
+    private static String getDayString(DayOfWeek day) {
+        switch (day) {
             case MONDAY: return "MON";
             case TUESDAY: return "TUE";
             case WEDNESDAY: return "WED";
@@ -84,6 +149,38 @@ public class AttendanceSystem {
         }
     }
     
+    // Inverse of getDayString; null for anything that is not a day code
+    private static DayOfWeek parseDay(String day) {
+        switch (day) {
+            case "MON": return DayOfWeek.MONDAY;
+            case "TUE": return DayOfWeek.TUESDAY;
+            case "WED": return DayOfWeek.WEDNESDAY;
+            case "THU": return DayOfWeek.THURSDAY;
+            case "FRI": return DayOfWeek.FRIDAY;
+            case "SAT": return DayOfWeek.SATURDAY;
+            case "SUN": return DayOfWeek.SUNDAY;
+            default: return null;
+        }
+    }
+    
+    private void indexSession(String course, ClassSession session) {
+        DayOfWeek day = parseDay(session.getDay());
+        if (day == null) return;
+        sessionsByDay.computeIfAbsent(day, k -> new ArrayList<>()).add(session);
+        courseSessionsByDay.computeIfAbsent(course, k -> new EnumMap<>(DayOfWeek.class))
+            .computeIfAbsent(day, k -> new ArrayList<>()).add(session);
+    }
+    
+    private void rebuildDayIndex() {
+        sessionsByDay.clear();
+        courseSessionsByDay.clear();
+        for (Map.Entry<String, ArrayList<ClassSession>> entry : courseTimetables.entrySet()) {
+            for (ClassSession session : entry.getValue()) {
+                indexSession(entry.getKey(), session);
+            }
+        }
+    }
+    
     // ... existing getters ...
 
     // Helper to get all sessions (backward compatibility / view all)
@@ -97,6 +194,8 @@ public class AttendanceSystem {
 
     public void addSessionToCourse(String course, ClassSession session) {
         courseTimetables.computeIfAbsent(course, k -> new ArrayList<>()).add(session);
+        indexSession(course, session);
+        pastSessionKeyCache.remove(course);
         
         // Auto-create teacher credentials if teacher doesn't exist
         String teacherName = session.getTeacher();
@@ -112,86 +211,110 @@ public class AttendanceSystem {
     
     public void clearCourseTimetable(String course) {
         courseTimetables.remove(course);
+        rebuildDayIndex();
+        pastSessionKeyCache.remove(course);
         saveTimetables();
     }
 
+    /**
+     * Replaces the whole timetable of a course in one step.
+     * Every session is validated first and nothing changes if any is invalid.
+     * An empty list removes the course's timetable.
+     * Teachers are created in one batch, and the timetable and users files
+     * are each written once. Returns the usernames of newly created teachers.
+     */
+    public Set<String> replaceCourseTimetable(String course, List<ClassSession> sessions) {
+        List<String> problems = new ArrayList<>();
+        for (int i = 0; i < sessions.size(); i++) {
+            ClassSession s = sessions.get(i);
+            if (parseDay(s.getDay()) == null) {
+                problems.add("Row " + (i + 1) + ": unknown day '" + s.getDay() + "'");
+            } else if (s.getTimeSlot().isEmpty() || s.getSubject().isEmpty()) {
+                problems.add("Row " + (i + 1) + ": time and subject are required");
+            }
+        }
+        if (!problems.isEmpty()) {
+            int shown = Math.min(problems.size(), 5);
+            String more = problems.size() > shown ? "\n(" + (problems.size() - shown) + " more)" : "";
+            throw new IllegalArgumentException(String.join("\n", problems.subList(0, shown)) + more);
+        }
+        
+        if (sessions.isEmpty()) {
+            courseTimetables.remove(course); // Nothing left to list, same as clearing it
+        } else {
+            courseTimetables.put(course, new ArrayList<>(sessions));
+        }
+        rebuildDayIndex();
+        pastSessionKeyCache.remove(course);
+        
+        Map<String, Set<String>> subjectsByTeacher = new HashMap<>();
+        for (ClassSession s : sessions) {
+            String teacherName = s.getTeacher();
+            if (teacherName != null && !teacherName.trim().isEmpty()) {
+                subjectsByTeacher.computeIfAbsent(teacherName, k -> new LinkedHashSet<>()).add(s.getSubject());
+            }
+        }
+        Set<String> newTeachers = AuthenticationManager.addTeachersIfNotExist(subjectsByTeacher);
+        
+        saveTimetables();
+        return newTeachers;
+    }
+
     private void saveTimetables() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(TIMETABLE_FILE))) {
-            for (Map.Entry<String, ArrayList<ClassSession>> entry : courseTimetables.entrySet()) {
-                String course = entry.getKey();
-                for (ClassSession s : entry.getValue()) {
-                    // Format: COURSE|DAY|TIME|SUBJECT|TEACHER|ROOM
-                    writer.println(course + "|" + s.getDay() + "|" + s.getTimeSlot() + "|" + s.getSubject() + "|" + s.getTeacher() + "|" + s.getRoom());
-                }
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, ArrayList<ClassSession>> entry : courseTimetables.entrySet()) {
+            String course = entry.getKey();
+            for (ClassSession s : entry.getValue()) {
+                // Format: COURSE|DAY|TIME|SUBJECT|TEACHER|ROOM
+                lines.add(course + "|" + s.getDay() + "|" + s.getTimeSlot() + "|" + s.getSubject() + "|" + s.getTeacher() + "|" + s.getRoom());
             }
-        } catch (IOException e) {
-            System.out.println("Error saving timetables: " + e.getMessage());
         }
+        writeLinesAsync(TIMETABLE_FILE, "timetables", lines);
     }
     
-    private void loadTimetables() {
-        File file = new File(TIMETABLE_FILE);
-        if (!file.exists()) return;
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(TIMETABLE_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split("\\|");
-                if (parts.length >= 6) {
-                    String course = parts[0];
-                    ClassSession session = new ClassSession(parts[1], parts[2], parts[3], parts[4], parts[5], course);
-                    courseTimetables.computeIfAbsent(course, k -> new ArrayList<>()).add(session);
-                }
+    private static Map<String, List<ClassSession>> readTimetables() {
+        Map<String, List<ClassSession>> timetables = new HashMap<>();
+        for (String line : readLines(TIMETABLE_FILE, "timetables")) {
+            LineCursor cursor = LineCursor.of(line);
+            if (cursor.countFields('|') >= 6) {
+                String[] parts = cursor.nextFields('|', 6);
+                String course = parts[0];
+                ClassSession session = new ClassSession(parts[1], parts[2], parts[3], parts[4], parts[5], course);
+                timetables.computeIfAbsent(course, k -> new ArrayList<>()).add(session);
             }
-        } catch (IOException e) {
-            System.out.println("Error loading timetables: " + e.getMessage());
         }
+        return timetables;
     }
 
     public String[] getUniqueDays() {
-        LinkedHashSet<String> days = new LinkedHashSet<>();
-        for (ArrayList<ClassSession> list : courseTimetables.values()) {
-            for (ClassSession session : list) {
-                days.add(session.getDay());
-            }
+        // EnumMap keys come back in MON..SUN order
+        ArrayList<String> days = new ArrayList<>();
+        for (Map.Entry<DayOfWeek, List<ClassSession>> entry : sessionsByDay.entrySet()) {
+            if (!entry.getValue().isEmpty()) days.add(getDayString(entry.getKey()));
         }
-        // Ensure standard order
-        String[] standardDays = {"MON", "TUE", "WED", "THU", "FRI", "SAT", "SUN"};
-        ArrayList<String> sortedDays = new ArrayList<>();
-        for (String d : standardDays) {
-            if (days.contains(d)) sortedDays.add(d);
-        }
-        return sortedDays.toArray(new String[0]);
+        return days.toArray(new String[0]);
     }
 
-    public ArrayList<ClassSession> getSessionsByDay(String day) {
-         // Return all sessions for the day across all courses (merged view)
-         ArrayList<ClassSession> sessions = new ArrayList<>();
-         for (ArrayList<ClassSession> list : courseTimetables.values()) {
-             for (ClassSession s : list) {
-                 if (s.getDay().equals(day)) {
-                     sessions.add(s);
-                 }
-             }
-         }
-         return sessions;
+    /**
+     * Returns all sessions for the day across all courses (merged view).
+     * The list is a read-only view of the day index.
+     */
+    public List<ClassSession> getSessionsByDay(String day) {
+        DayOfWeek dayOfWeek = parseDay(day);
+        List<ClassSession> sessions = dayOfWeek == null ? null : sessionsByDay.get(dayOfWeek);
+        return sessions == null ? Collections.emptyList() : Collections.unmodifiableList(sessions);
     }
     
-    public ArrayList<ClassSession> getSessionsByDay(String day, String course) {
-        ArrayList<ClassSession> sessions = new ArrayList<>();
+    public List<ClassSession> getSessionsByDay(String day, String course) {
         if (course.equals("All Courses")) {
             return getSessionsByDay(day);
         }
         
-        List<ClassSession> courseList = courseTimetables.get(course);
-        if (courseList != null) {
-            for (ClassSession s : courseList) {
-                if (s.getDay().equals(day)) {
-                    sessions.add(s);
-                }
-            }
-        }
-        return sessions;
+        DayOfWeek dayOfWeek = parseDay(day);
+        Map<DayOfWeek, List<ClassSession>> courseDays = courseSessionsByDay.get(course);
+        if (dayOfWeek == null || courseDays == null) return Collections.emptyList();
+        List<ClassSession> sessions = courseDays.get(dayOfWeek);
+        return sessions == null ? Collections.emptyList() : Collections.unmodifiableList(sessions);
     }
 
 
@@ -207,25 +330,56 @@ public class AttendanceSystem {
 
     
     public void addStudent(String name, String id, String course) {
-        if (studentCount < MAX_STUDENTS) {
-            Student newStudent = new Student(name, id, course);
-            // Sync only this student's course sessions
-            Set<String> keys = getPastSessionKeysForCourse(course);
-            for (String key : keys) {
-                newStudent.markAttendanceForSession(key, false);
-            }
-            students[studentCount++] = newStudent;
+        Student newStudent = new Student(name, id, course);
+        // Sync only this student's course sessions
+        Set<String> keys = getPastSessionKeysForCourse(course);
+        for (String key : keys) {
+            newStudent.markAttendanceForSession(key, false);
+        }
+        students.add(newStudent);
+        markChanged(newStudent);
+        saveDataToFile();
+    }
+    
+    /**
+     * Adds many students with a single write of the data file.
+     * Students whose ID is already taken are skipped. Each course's past
+     * sessions are computed once and recorded as absent for its new students.
+     * Returns the number of students added.
+     */
+    public int addStudents(List<Student> newStudents) {
+        Map<String, BitSet> pastSessionsByCourse = new HashMap<>();
+        int added = 0;
+        for (Student student : newStudents) {
+            if (students.find(student.getId()) != null) continue;
+            BitSet pastSessions = pastSessionsByCourse.computeIfAbsent(student.getCourse(), course -> {
+                SessionDictionary dictionary = SessionDictionary.forCourse(course);
+                BitSet ids = new BitSet();
+                for (String key : getPastSessionKeysForCourse(course)) {
+                    ids.set(dictionary.intern(key));
+                }
+                return ids;
+            });
+            student.recordAbsentIfMissing(pastSessions);
+            students.add(student);
+            markChanged(student);
+            added++;
+        }
+        if (added > 0) {
             saveDataToFile();
         }
+        return added;
     }
     
     public Student findStudent(String id) {
-        for (int i = 0; i < studentCount; i++) {
-            if (students[i].getId().equals(id)) {
-                return students[i];
-            }
-        }
-        return null;
+        return students.find(id);
+    }
+    
+    /**
+     * Returns the students enrolled in a course, in roster order.
+     */
+    public List<Student> getStudentsInCourse(String course) {
+        return students.getStudentsInCourse(course);
     }
     
     public void markAttendanceForSession(String studentId, String sessionKey, boolean isPresent) {
@@ -235,6 +389,47 @@ public class AttendanceSystem {
         Student student = findStudent(studentId);
         if (student != null) {
             student.markAttendanceForSession(sessionKey, isPresent);
+            appendToJournal(Collections.singletonList(new AttendanceJournal.Entry(
+                studentId, sessionKey, isPresent, student.isSelfMarked(sessionKey), System.currentTimeMillis())));
+        }
+    }
+    
+    /**
+     * Marks one session for a group of students and persists once.
+     * Returns how many records actually changed.
+     */
+    public int markAttendanceForSession(List<String> studentIds, String sessionKey, boolean isPresent) {
+        List<AttendanceJournal.Entry> entries = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        
+        for (String studentId : studentIds) {
+            Student student = findStudent(studentId);
+            if (student == null) continue;
+            
+            if (student.hasSession(sessionKey) && student.getAttendanceForSession(sessionKey) == isPresent) {
+                continue; // Already in the requested state
+            }
+            
+            student.markAttendanceForSession(sessionKey, isPresent);
+            entries.add(new AttendanceJournal.Entry(studentId, sessionKey, isPresent, student.isSelfMarked(sessionKey), now));
+        }
+        
+        appendToJournal(entries);
+        return entries.size();
+    }
+    
+    // Persist attendance deltas without rewriting the snapshot; compact when the journal grows large
+    private void appendToJournal(List<AttendanceJournal.Entry> entries) {
+        ioExecutor.execute(() -> {
+            try {
+                // Locked so a compaction by another client cannot clear entries it has not merged
+                folderLock.run(() -> journal.append(entries));
+            } catch (IOException e) {
+                System.out.println("Error writing attendance journal: " + e.getMessage());
+            }
+        });
+        // One rewrite at a time; appends queued behind it are folded in when it runs
+        if (journal.needsCompaction() && compactionQueued.compareAndSet(false, true)) {
             saveDataToFile();
         }
     }
@@ -244,188 +439,454 @@ public class AttendanceSystem {
      * in the same course to keep "Total Sessions" consistent.
      */
     public void markEventAttendance(String studentId, String sessionKey, boolean isPresent) {
+        markEventAttendance(studentId, Collections.singletonList(sessionKey), isPresent);
+    }
+    
+    /**
+     * Marks one student for all of an event's sessions and records the sessions
+     * as absent for the rest of the course. Both are persisted as one journal
+     * append: the student's marks plus one course-wide entry per session, so
+     * other clients apply the same fan-out when they read the journal.
+     */
+    public void markEventAttendance(String studentId, List<String> sessionKeys, boolean isPresent) {
         Student targetStudent = findStudent(studentId);
-        if (targetStudent == null) return;
+        if (targetStudent == null || sessionKeys.isEmpty()) return;
         
-        String course = targetStudent.getCourse();
+        SessionDictionary dictionary = targetStudent.getSessionDictionary();
+        BitSet eventSessions = new BitSet();
+        List<AttendanceJournal.Entry> entries = new ArrayList<>();
+        long now = System.currentTimeMillis();
         
         // 1. Mark for target student
-        targetStudent.markAttendanceForSession(sessionKey, isPresent);
-        
-        // 2. Sync this key to ALL students in the same course (as Absent if missing)
-        // This ensures the "Total Sessions" count increases for everyone, not just the uploader.
-        for (int i = 0; i < studentCount; i++) {
-            Student s = students[i];
-            if (s.getCourse().equals(course)) {
-                if (!s.getSessionAttendance().containsKey(sessionKey)) {
-                    s.markAttendanceForSession(sessionKey, false); // Default to absent/not uploaded
-                }
-            }
+        for (String key : sessionKeys) {
+            targetStudent.markAttendanceForSession(key, isPresent);
+            eventSessions.set(dictionary.intern(key));
+            entries.add(new AttendanceJournal.Entry(studentId, key, isPresent, targetStudent.isSelfMarked(key), now));
+        }
+        for (String key : sessionKeys) {
+            entries.add(AttendanceJournal.Entry.sessionAdded(targetStudent.getCourse(), key, now));
         }
         
-        saveDataToFile();
+        // 2. Add the sessions to everyone else in the course as Absent if missing,
+        // so "Total Sessions" increases for everyone, not just the uploader
+        for (Student s : getStudentsInCourse(targetStudent.getCourse())) {
+            s.recordAbsentIfMissing(eventSessions);
+        }
+        
+        appendToJournal(entries);
     }
     
     public boolean removeStudent(String id) {
-        for (int i = 0; i < studentCount; i++) {
-            if (students[i].getId().equals(id)) {
-                for (int j = i; j < studentCount - 1; j++) {
-                    students[j] = students[j + 1];
-                }
-                students[studentCount - 1] = null;
-                studentCount--;
-                saveDataToFile();
-                return true;
-            }
+        if (students.remove(id) == null) {
+            return false;
         }
-        return false;
+        changedStudentIds.remove(id);
+        removedStudentIds.add(id);
+        saveDataToFile();
+        return true;
     }
     
     public Student[] getAllStudents() {
-        Student[] result = new Student[studentCount];
-        for (int i = 0; i < studentCount; i++) {
-            result[i] = students[i];
-        }
-        return result;
+        return students.toArray();
     }
     
     public int getStudentCount() {
-        return studentCount;
+        return students.size();
+    }
+    
+    /**
+     * Running attendance totals for a course, or for all students when course
+     * is "All Courses" or null. Kept up to date on every mark, so reading is O(1).
+     */
+    public AttendanceRollup getAttendanceRollup(String course) {
+        return students.getRollup(courseOrAll(course));
+    }
+    
+    /**
+     * Students below an attendance percentage, lowest first, in one course or
+     * in all of them ("All Courses" or null). The result is read lazily from
+     * the attendance index, so callers can page through it.
+     */
+    public Iterable<Student> getStudentsBelow(double threshold, String course) {
+        return students.getStudentsBelow(threshold, courseOrAll(course));
+    }
+    
+    public int countStudentsBelow(double threshold, String course) {
+        return students.countStudentsBelow(threshold, courseOrAll(course));
+    }
+    
+    /**
+     * Subscribe to changes of the attendance totals, local or reloaded.
+     * Listeners run on the thread that made the change, once per student
+     * counted, so a batch of marks calls them many times in a row.
+     */
+    public void addTotalsListener(Runnable listener) {
+        totalsListeners.add(listener);
+    }
+    
+    private StudentStore newStudentStore() {
+        StudentStore store = new StudentStore();
+        store.setOnTotalsChanged(() -> {
+            for (Runnable listener : totalsListeners) {
+                listener.run();
+            }
+        });
+        return store;
+    }
+    
+    // StudentStore takes null for every course
+    private static String courseOrAll(String course) {
+        return course == null || course.equals("All Courses") ? null : course;
+    }
+    
+    /**
+     * Approximate heap bytes used per student, including index overhead.
+     */
+    public long getEstimatedBytesPerStudent() {
+        return students.getEstimatedBytesPerStudent();
     }
     
     public void generateReport() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(REPORT_FILE))) {
-            writer.println("========================================");
-            writer.println("    ATTENDANCE REPORT");
-            writer.println("    Date: " + LocalDate.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy")));
-            writer.println("========================================\n");
-            
-            if (studentCount == 0) {
-                writer.println("No students registered.");
-                return;
+        generateReport(REPORT_FILE, AttendanceReport.Format.TEXT);
+    }
+    
+    /**
+     * Writes the attendance report for all students to a file in the given format.
+     */
+    public void generateReport(String fileName, AttendanceReport.Format format) {
+        try {
+            AttendanceReport.of(students).writeTo(fileName, format);
+        } catch (IOException e) {
+            System.out.println("Error generating report: " + e.getMessage());
+        }
+    }
+    
+    // Records that this client's version of a student must survive a merge with another client's save
+    private void markChanged(Student student) {
+        changedStudentIds.add(student.getId());
+        removedStudentIds.remove(student.getId());
+    }
+    
+    void saveDataToFile() {
+        // Serialize detached copies so marks made while the write is queued cannot tear a record
+        List<Student> copies = new ArrayList<>(students.size());
+        for (Student s : students) {
+            copies.add(s.copy());
+        }
+        Set<String> changedIds = changedStudentIds;
+        Set<String> removedIds = removedStudentIds;
+        changedStudentIds = new HashSet<>();
+        removedStudentIds = new HashSet<>();
+        int applied = studentSnapshotsApplied;
+        
+        ioExecutor.execute(() -> {
+            try {
+                folderLock.run(() -> writeStudentData(copies, changedIds, removedIds, applied));
+            } catch (IOException e) {
+                System.out.println("Error saving data: " + e.getMessage());
+            } finally {
+                compactionQueued.set(false);
             }
-            
-            int totalStudents = studentCount;
-            double avgAttendance = 0.0;
-            int studentsBelow75 = 0;
-            
-            for (int i = 0; i < studentCount; i++) {
-                avgAttendance += students[i].getAttendancePercentage();
-                if (students[i].getAttendancePercentage() < 75.0) {
-                    studentsBelow75++;
+        });
+    }
+    
+    /**
+     * Replaces the data file and clears the journal. Runs on the I/O thread
+     * while holding the folder lock. If another client saved since this one
+     * last read the file, its records are kept and only the students added,
+     * edited or removed here are applied on top. Journal entries this client
+     * has not applied yet are folded in before the journal is cleared. In both
+     * cases the file is left marked as changed, so the next reload picks up
+     * what the other clients wrote. The copies are also treated as out of
+     * date when a reload has already read the file or journal but had not
+     * been applied when they were taken; the tracker and the journal offset
+     * have moved on, so only the disk copy still holds those changes.
+     */
+    private void writeStudentData(List<Student> copies, Set<String> changedIds, Set<String> removedIds,
+                                  int snapshotsApplied) throws IOException {
+        List<Student> records;
+        List<AttendanceJournal.Entry> unapplied;
+        if (snapshotsApplied != studentSnapshotsRead || fileTracker.hasChanged(dataFile)) {
+            records = mergeWithDataFile(copies, changedIds, removedIds);
+            unapplied = journal.readAll();
+        } else {
+            records = copies;
+            unapplied = journal.readNew();
+        }
+        
+        if (!unapplied.isEmpty()) {
+            Map<String, Student> byId = new HashMap<>();
+            Map<String, List<Student>> byCourse = new HashMap<>();
+            for (Student s : records) {
+                if (byId.putIfAbsent(s.getId(), s) == null) {
+                    byCourse.computeIfAbsent(s.getCourse(), k -> new ArrayList<>()).add(s);
                 }
             }
-            avgAttendance /= totalStudents;
-            
-            writer.println("SUMMARY:");
-            writer.println("Total Students: " + totalStudents);
-            writer.printf("Average Attendance: %.2f%%\n", avgAttendance);
-            writer.println("Students Below 75%%: " + studentsBelow75);
-            writer.println("\n========================================\n");
-            writer.println("INDIVIDUAL ATTENDANCE:");
-            writer.println("----------------------------------");
-            
-            for (int i = 0; i < studentCount; i++) {
-                Student s = students[i];
-                writer.println("Student ID: " + s.getId());
-                writer.println("Name: " + s.getName());
-                writer.println("Course: " + s.getCourse());
-                writer.println("Total Sessions: " + s.getTotalSessions());
-                writer.println("Sessions Attended: " + s.getTotalSessionsAttended());
-                writer.printf("Attendance: %.2f%%", s.getAttendancePercentage());
-                
-                if (s.getAttendancePercentage() < 75.0) {
-                    writer.print(" [LOW ATTENDANCE - WARNING]");
-                }
-                writer.println("\n----------------------------------");
+            applyJournalEntries(unapplied, byId::get, course -> byCourse.getOrDefault(course, Collections.emptyList()));
+        }
+        
+        writeStudentRecords(dataFile, records);
+        journal.clear(); // Snapshot now contains every journaled change
+        if (records == copies && unapplied.isEmpty()) {
+            fileTracker.remember(dataFile);
+        }
+    }
+    
+    // Records on disk win, except for students this client added, edited or removed
+    private List<Student> mergeWithDataFile(List<Student> copies, Set<String> changedIds, Set<String> removedIds) {
+        Map<String, Student> merged = new LinkedHashMap<>();
+        for (StudentRecord record : readStudentRecords(dataFile)) {
+            merged.putIfAbsent(record.getId(), record.toStudent());
+        }
+        merged.keySet().removeAll(removedIds);
+        for (Student s : copies) {
+            if (changedIds.contains(s.getId())) {
+                merged.put(s.getId(), s);
             }
-            
-            writer.println("\nReport Generated Successfully!");
-            
-        } catch (IOException e) {
-            System.out.println("Error generating report: " + e.getMessage());
         }
+        return new ArrayList<>(merged.values());
     }
     
-    private void saveDataToFile() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(DATA_FILE))) {
-            for (int i = 0; i < studentCount; i++) {
-                writer.println(students[i].toFileString());
+    /**
+     * Student records of the data file in use, for looking students up
+     * without loading the system (e.g. at login). A newer file in the other
+     * format that the next load would convert is read instead.
+     */
+    static List<StudentRecord> readStudentRecords() {
+        String active = BINARY_DATA ? BINARY_DATA_FILE : DATA_FILE;
+        String other = BINARY_DATA ? DATA_FILE : BINARY_DATA_FILE;
+        File from = new File(other);
+        File to = new File(active);
+        boolean unconverted = from.exists() && (!to.exists() || to.lastModified() < from.lastModified());
+        return readStudentRecords(unconverted ? other : active);
+    }
+    
+    private static List<StudentRecord> readStudentRecords(String fileName) {
+        if (fileName.equals(BINARY_DATA_FILE)) {
+            return BinaryStudentSnapshot.read(fileName);
+        }
+        List<StudentRecord> records = new ArrayList<>();
+        for (String line : readLines(fileName, "data")) {
+            records.add(StudentRecord.ofLine(line));
+        }
+        return records;
+    }
+    
+    private static void writeStudentRecords(String fileName, List<Student> records) throws IOException {
+        if (fileName.equals(BINARY_DATA_FILE)) {
+            BinaryStudentSnapshot.write(fileName, records);
+            return;
+        }
+        AtomicFileWriter.write(fileName, out -> {
+            for (Student s : records) {
+                out.writeLine(s.toFileString());
             }
+        });
+    }
+    
+    /**
+     * Converts the student data when the file in the other format is newer
+     * than the one in use, e.g. after switching attendance.binaryData on or off.
+     * The old file is left in place. Clients sharing a folder should use the same format.
+     */
+    private void convertDataFile() {
+        String otherFile = dataFile.equals(DATA_FILE) ? BINARY_DATA_FILE : DATA_FILE;
+        try {
+            folderLock.run(() -> {
+                File from = new File(otherFile);
+                File to = new File(dataFile);
+                if (!from.exists() || (to.exists() && to.lastModified() >= from.lastModified())) return;
+                
+                List<Student> records = new ArrayList<>();
+                for (StudentRecord record : readStudentRecords(otherFile)) {
+                    records.add(record.toStudent());
+                }
+                writeStudentRecords(dataFile, records);
+                System.out.println("Converted " + records.size() + " students from " + otherFile + " to " + dataFile);
+            });
         } catch (IOException e) {
-            System.out.println("Error saving data: " + e.getMessage());
+            System.out.println("Error converting data: " + e.getMessage());
         }
     }
     
-    private void loadDataFromFile() {
-        File file = new File(DATA_FILE);
-        if (!file.exists()) {
-            return;
+    /**
+     * Rebuilds the students from the snapshot records, then applies the journal.
+     * Records that are unchanged since the previous load keep their
+     * existing Student object; only new or edited records are parsed.
+     * Returns how many records were parsed or dropped.
+     */
+    private int loadStudents(List<StudentRecord> records, List<AttendanceJournal.Entry> journalEntries) {
+        int changedRecords = 0;
+        StudentStore loaded = newStudentStore();
+        Map<String, Long> hashes = new HashMap<>();
+        for (StudentRecord record : records) {
+            String id = record.getId();
+            long hash = record.getHash();
+            
+            Long previous = recordHashes.get(id);
+            Student existing = students.find(id);
+            if (previous != null && previous == hash && existing != null && !hashes.containsKey(id)) {
+                loaded.add(existing);
+            } else {
+                loaded.add(record.toStudent());
+                changedRecords++;
+            }
+            hashes.putIfAbsent(id, hash);
         }
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(DATA_FILE))) {
-            String line;
-            studentCount = 0;
-            while ((line = reader.readLine()) != null && studentCount < MAX_STUDENTS) {
-                students[studentCount++] = Student.fromFileString(line);
+        // Students that disappeared from the file
+        for (Student s : students) {
+            if (!hashes.containsKey(s.getId())) changedRecords++;
+        }
+        students = loaded;
+        recordHashes = hashes;
+        
+        // Apply changes recorded since the last snapshot
+        changedRecords += applyJournalEntries(journalEntries);
+        
+        // Populate known keys and sync
+        // Replaced by syncGlobalSessions logic which handles course specifics
+        if (syncGlobalSessions()) changedRecords++;
+        
+        return changedRecords;
+    }
+    
+    // Returns how many entries actually changed in-memory state
+    private int applyJournalEntries(List<AttendanceJournal.Entry> entries) {
+        return applyJournalEntries(entries, this::findStudent, students::getStudentsInCourse);
+    }
+    
+    /**
+     * Replays journal entries in order over the students found through the
+     * given lookups, so a removal undoes the marks journaled before it.
+     * Returns how many entries changed a student.
+     */
+    private static int applyJournalEntries(List<AttendanceJournal.Entry> entries,
+                                           Function<String, Student> byId, Function<String, List<Student>> byCourse) {
+        int changed = 0;
+        for (AttendanceJournal.Entry entry : entries) {
+            if (entry.getKind() == AttendanceJournal.Entry.Kind.SESSION_ADDED) {
+                if (addSession(byCourse.apply(entry.getCourse()), entry.getCourse(), entry.getSessionKey())) {
+                    changed++;
+                }
+                continue;
+            }
+            if (entry.getKind() == AttendanceJournal.Entry.Kind.SESSION_REMOVED) {
+                if (removeSession(byCourse.apply(entry.getCourse()), entry.getCourse(), entry.getSessionKey())) {
+                    changed++;
+                }
+                continue;
             }
             
-            // Populate known keys and sync
-            // Replaced by syncGlobalSessions logic which handles course specifics
-            syncGlobalSessions();
+            Student student = byId.apply(entry.getStudentId());
+            if (student == null) continue; // Student removed after the mark
             
-        } catch (IOException e) {
-            System.out.println("Error loading data: " + e.getMessage());
+            if (applyJournalEntry(student, entry)) {
+                changed++;
+            }
         }
+        return changed;
     }
     
-    private void syncGlobalSessions() {
-        boolean changed = false;
+    // Returns whether any student of the roster was missing the session
+    private static boolean addSession(List<Student> roster, String course, String sessionKey) {
+        BitSet session = new BitSet();
+        session.set(SessionDictionary.forCourse(course).intern(sessionKey));
         
-        // 1. Group students by Course
-        Map<String, List<Student>> courseStudents = new HashMap<>();
-        for (int i = 0; i < studentCount; i++) {
-            courseStudents.computeIfAbsent(students[i].getCourse(), k -> new ArrayList<>()).add(students[i]);
+        boolean added = false;
+        for (Student s : roster) {
+            added |= s.recordAbsentIfMissing(session) > 0;
         }
+        return added;
+    }
+    
+    // Returns whether any student of the roster had the session
+    private static boolean removeSession(List<Student> roster, String course, String sessionKey) {
+        int id = SessionDictionary.forCourse(course).idOf(sessionKey);
+        if (id < 0) return false;
+        BitSet session = new BitSet();
+        session.set(id);
         
-        // 2. Process each course
-        for (String course : courseStudents.keySet()) {
-            List<Student> studentsInCourse = courseStudents.get(course);
+        boolean removed = false;
+        for (Student s : roster) {
+            removed |= s.removeSessions(session);
+        }
+        return removed;
+    }
+    
+    // Returns whether the entry changed the student's record
+    private static boolean applyJournalEntry(Student student, AttendanceJournal.Entry entry) {
+        String key = entry.getSessionKey();
+        boolean changed = !student.hasSession(key) || student.getAttendanceForSession(key) != entry.isPresent()
+            || (entry.isSelfMarked() && !student.isSelfMarked(key));
+        if (entry.isSelfMarked()) {
+            student.markSelfAttendance(key);
+        }
+        student.markAttendanceForSession(key, entry.isPresent());
+        return changed;
+    }
+    
+    boolean syncGlobalSessions() {
+        boolean changed = false;
+        
+        // 1. Process each course using the roster index
+        for (String course : students.getCourses()) {
+            List<Student> studentsInCourse = students.getStudentsInCourse(course);
+            
+            SessionDictionary dictionary = SessionDictionary.forCourse(course);
             
             // A. Get Standard Keys from Timetable
-            Set<String> allKeys = getPastSessionKeysForCourse(course);
+            BitSet allSessions = new BitSet();
+            for (String key : getPastSessionKeysForCourse(course)) {
+                allSessions.set(dictionary.intern(key));
+            }
             
             // B. Collect Ad-Hoc Keys (Event-based) from students
             for (Student s : studentsInCourse) {
-                allKeys.addAll(s.getSessionAttendance().keySet());
+                allSessions.or(s.getRecordedSessionIds());
             }
             
-            // C. Sync to everyone
+            // C. Sync to everyone, defaulting missing sessions to Absent
             for (Student s : studentsInCourse) {
-                Map<String, Boolean> map = s.getSessionAttendance();
-                for (String key : allKeys) {
-                    if (!map.containsKey(key)) {
-                        map.put(key, false); // Default to Absent
-                        changed = true;
-                    }
+                if (s.recordAbsentIfMissing(allSessions) > 0) {
+                    changed = true;
                 }
             }
         }
         
-        if (changed) {
+        if (changed || journal.needsCompaction()) {
             saveDataToFile();
         }
+        return changed;
     }
     
-    private Set<String> getPastSessionKeysForCourse(String course) {
-        Set<String> keys = new HashSet<>();
-        LocalDate today = LocalDate.now();
-        LocalDate date = TERM_START_DATE;
-        
+    // Session keys generated for a course from TERM_START_DATE through 'through'
+    private static class PastSessionKeys {
+        final Set<String> keys = new HashSet<>();
+        LocalDate through = TERM_START_DATE.minusDays(1);
+    }
+    
+    /**
+     * Returns the keys of every timetabled session of the course up to today.
+     * The result is cached per course; when the date rolls over only the new
+     * days are generated. The cache is dropped whenever the course timetable changes.
+     */
+    Set<String> getPastSessionKeysForCourse(String course) {
         ArrayList<ClassSession> sessions = courseTimetables.get(course);
-        if (sessions == null) return keys;
+        if (sessions == null) return Collections.emptySet();
         
-        while (!date.isAfter(today)) {
+        PastSessionKeys cached = pastSessionKeyCache.computeIfAbsent(course, k -> new PastSessionKeys());
+        LocalDate today = LocalDate.now();
+        if (cached.through.isBefore(today)) {
+            addSessionKeys(sessions, cached.through.plusDays(1), today, cached.keys);
+            cached.through = today;
+        }
+        return Collections.unmodifiableSet(cached.keys);
+    }
+    
+    private void addSessionKeys(List<ClassSession> sessions, LocalDate from, LocalDate to, Set<String> keys) {
+        LocalDate date = from;
+        while (!date.isAfter(to)) {
             String dayStr = getDayString(date);
             if (!dayStr.isEmpty()) {
                 for (ClassSession session : sessions) {
@@ -437,7 +898,6 @@ public class AttendanceSystem {
             }
             date = date.plusDays(1);
         }
-        return keys;
     }
     
     private void populatePastSessions() {
@@ -503,53 +963,11 @@ public class AttendanceSystem {
     }
     
     private void saveAssignments() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(ASSIGNMENTS_FILE))) {
-            for (Assignment a : assignments) {
-                writer.println(a.toFileString());
-            }
-        } catch (IOException e) {
-            System.out.println("Error saving assignments: " + e.getMessage());
-        }
-    }
-
-    private void loadAssignments() {
-        File file = new File(ASSIGNMENTS_FILE);
-        if (!file.exists()) return;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                Assignment a = Assignment.fromFileString(line);
-                if (a != null) assignments.add(a);
-            }
-        } catch (IOException e) {
-            System.out.println("Error loading assignments: " + e.getMessage());
-        }
+        writeLinesAsync(ASSIGNMENTS_FILE, "assignments", toLines(assignments, Assignment::toFileString));
     }
 
     private void saveSubmissions() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(SUBMISSIONS_FILE))) {
-            for (AssignmentSubmission s : submissions) {
-                writer.println(s.toFileString());
-            }
-        } catch (IOException e) {
-            System.out.println("Error saving submissions: " + e.getMessage());
-        }
-    }
-
-    private void loadSubmissions() {
-        File file = new File(SUBMISSIONS_FILE);
-        if (!file.exists()) return;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                AssignmentSubmission s = AssignmentSubmission.fromFileString(line);
-                if (s != null) submissions.add(s);
-            }
-        } catch (IOException e) {
-            System.out.println("Error loading submissions: " + e.getMessage());
-        }
+        writeLinesAsync(SUBMISSIONS_FILE, "submissions", toLines(submissions, AssignmentSubmission::toFileString));
     }
 
     // ================= EVENT MANAGEMENT =================
@@ -576,28 +994,7 @@ public class AttendanceSystem {
     }
 
     private void saveEvents() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(EVENTS_FILE))) {
-            for (Event e : events) {
-                writer.println(e.toFileString());
-            }
-        } catch (IOException e) {
-            System.out.println("Error saving events: " + e.getMessage());
-        }
-    }
-
-    private void loadEvents() {
-        File file = new File(EVENTS_FILE);
-        if (!file.exists()) return;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                Event e = Event.fromFileString(line);
-                if (e != null) events.add(e);
-            }
-        } catch (IOException e) {
-            System.out.println("Error loading events: " + e.getMessage());
-        }
+        writeLinesAsync(EVENTS_FILE, "events", toLines(events, Event::toFileString));
     }
 
     // ================= EVENT PHOTO MANAGEMENT =================
@@ -654,17 +1051,30 @@ public class AttendanceSystem {
         if (event != null && event.getAffectedSessions() != null && !event.getAffectedSessions().isEmpty()) {
             String[] sessions = event.getAffectedSessions().split(",");
             String date = event.getDate();
+            List<AttendanceJournal.Entry> removals = new ArrayList<>();
+            long now = System.currentTimeMillis();
             
-            // Remove these keys from ALL students
-            for (int i = 0; i < studentCount; i++) {
-                Student s = students[i];
+            // Only courses that have the sessions, found from their dictionary and totals
+            for (String course : students.getCourses()) {
+                SessionDictionary dictionary = SessionDictionary.forCourse(course);
+                AttendanceRollup rollup = students.getRollup(course);
+                BitSet eventSessions = new BitSet();
                 for (String sKey : sessions) {
                     String fullKey = date + "#" + sKey;
-                    s.getSessionAttendance().remove(fullKey);
+                    int id = dictionary.idOf(fullKey);
+                    if (id >= 0 && rollup.getRecordedCount(fullKey) > 0) {
+                        eventSessions.set(id);
+                        removals.add(AttendanceJournal.Entry.sessionRemoved(course, fullKey, now));
+                    }
+                }
+                if (eventSessions.isEmpty()) continue;
+                
+                for (Student s : students.getStudentsInCourse(course)) {
+                    s.removeSessions(eventSessions);
                 }
             }
-            // Save student data changes
-            saveDataToFile();
+            // One append of course-wide removals; compaction folds them into the data file
+            appendToJournal(removals);
         }
         
         events.removeIf(e -> e.getId().equals(eventId));
@@ -688,45 +1098,306 @@ public class AttendanceSystem {
     }
 
     private void saveEventPhotos() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(EVENT_PHOTOS_FILE))) {
-            for (EventPhoto p : eventPhotos) {
-                writer.println(p.toFileString());
+        writeLinesAsync(EVENT_PHOTOS_FILE, "event photos", toLines(eventPhotos, EventPhoto::toFileString));
+    }
+    
+    // ================= BACKGROUND I/O =================
+    
+    /**
+     * Queues a rewrite of a whole file on the I/O thread. The body runs later,
+     * so it must only use data captured for it, never live objects.
+     * The file is replaced atomically under the folder lock; a failed write
+     * leaves the old file intact.
+     */
+    private void writeFileAsync(String fileName, String label, AtomicFileWriter.Body body) {
+        ioExecutor.execute(() -> {
+            try {
+                folderLock.run(() -> {
+                    AtomicFileWriter.write(fileName, body);
+                    fileTracker.remember(fileName);
+                });
+            } catch (IOException e) {
+                System.out.println("Error saving " + label + ": " + e.getMessage());
             }
-        } catch (IOException e) {
-            System.out.println("Error saving event photos: " + e.getMessage());
+        });
+    }
+    
+    private void writeLinesAsync(String fileName, String label, List<String> lines) {
+        writeFileAsync(fileName, label, out -> {
+            for (String line : lines) {
+                out.writeLine(line);
+            }
+        });
+    }
+    
+    private static <T> List<String> toLines(List<T> records, Function<T, String> format) {
+        List<String> lines = new ArrayList<>(records.size());
+        for (T record : records) {
+            lines.add(format.apply(record));
         }
+        return lines;
     }
-
-    private void loadEventPhotos() {
-        File file = new File(EVENT_PHOTOS_FILE);
-        if (!file.exists()) return;
-
+    
+    private static List<String> readLines(String fileName, String label) {
+        List<String> lines = new ArrayList<>();
+        File file = new File(fileName);
+        if (!file.exists()) return lines;
+        
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
             while ((line = reader.readLine()) != null) {
-                EventPhoto p = EventPhoto.fromFileString(line);
-                if (p != null) eventPhotos.add(p);
+                lines.add(line);
             }
         } catch (IOException e) {
-            System.out.println("Error loading event photos: " + e.getMessage());
+            System.out.println("Error loading " + label + ": " + e.getMessage());
+        }
+        return lines;
+    }
+    
+    private static <T> List<T> readRecords(String fileName, String label, Function<String, T> parser) {
+        List<T> records = new ArrayList<>();
+        for (String line : readLines(fileName, label)) {
+            T record = parser.apply(line);
+            if (record != null) records.add(record);
+        }
+        return records;
+    }
+    
+    /**
+     * Blocks until every write queued so far has reached disk.
+     */
+    public void flush() {
+        try {
+            ioExecutor.submit(() -> { }).get();
+        } catch (RejectedExecutionException e) {
+            // Already closed; close() waited for the queue to drain
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Error flushing data: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Stops watching, finishes every queued write and shuts down the I/O thread.
+     */
+    public void close() {
+        stopWatching();
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.out.println("Error closing data: pending writes did not finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down
+        }
+    }
+    
+    /**
+     * Subscribe to changes made to the shared data files by other users.
+     * Listeners run on the executor passed to startWatching().
+     */
+    public void addChangeListener(Consumer<Set<DataChange>> listener) {
+        changeListeners.add(listener);
+    }
+    
+    public void removeChangeListener(Consumer<Set<DataChange>> listener) {
+        changeListeners.remove(listener);
+    }
+    
+    /**
+     * Starts watching the data directory. Changed files are read on the I/O
+     * thread; the resulting snapshot is applied and listeners are called through
+     * the given executor, e.g. SwingUtilities::invokeLater, so they never race
+     * with code reading this object on that thread.
+     */
+    public void startWatching(Executor executor) {
+        if (watcher != null) return;
+        Set<String> files = new HashSet<>(Arrays.asList(
+            dataFile, JOURNAL_FILE, TIMETABLE_FILE, ASSIGNMENTS_FILE, SUBMISSIONS_FILE, EVENTS_FILE, EVENT_PHOTOS_FILE));
+        watcher = new DataDirectoryWatcher(Paths.get("").toAbsolutePath(), files, () -> {
+            if (ioExecutor.isShutdown()) return;
+            ioExecutor.execute(() -> {
+                DataSnapshot snapshot = readSnapshot(false);
+                if (!snapshot.isEmpty()) {
+                    executor.execute(() -> applyAndNotify(snapshot));
+                }
+            });
+        });
+        watcher.start();
+    }
+    
+    public void stopWatching() {
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+    }
+    
+    private void applyAndNotify(DataSnapshot snapshot) {
+        Set<DataChange> changes = applySnapshot(snapshot);
+        if (changes.isEmpty()) return;
+        
+        Set<DataChange> view = Collections.unmodifiableSet(changes);
+        for (Consumer<Set<DataChange>> listener : changeListeners) {
+            listener.accept(view);
+        }
+    }
+    
+    /**
+     * Refreshes data changed on disk by other users.
+     * Files whose size, mtime and checksum are unchanged are skipped; for the
+     * attendance data only new journal entries or edited records are applied.
+     * Files are read on the I/O thread and applied on the calling thread.
+     * Returns the kinds of data that changed so callers can refresh selectively.
+     */
+    public Set<DataChange> reloadData() {
+        DataSnapshot snapshot;
+        try {
+            snapshot = ioExecutor.submit(() -> readSnapshot(false)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EnumSet.noneOf(DataChange.class);
+        } catch (ExecutionException e) {
+            System.out.println("Error reloading data: " + e.getMessage());
+            return EnumSet.noneOf(DataChange.class);
         }
+        return applySnapshot(snapshot);
     }
     
     /**
-     * Refreshes all data from files. 
-     * Call this periodically to get updates from other users.
+     * Contents of the data files that changed on disk, read off the owning thread.
+     * A null field means that file did not change. Nothing is modified after construction.
      */
-    public void reloadData() {
-        // Clear current state
-        studentCount = 0;
-        // Keep courseTimetables structure but clear students? 
-        // Actually, easiest is to just re-run loadDataFromFile.
-        // But we need to be careful about not losing unsaved changes.
-        // Assume save happens immediately on change, so this is safe.
-        
-        loadDataFromFile(); 
-        
-        // Also reload events/photos if needed, but for attendance specifically:
-        // We need to reload students.
+    private static final class DataSnapshot {
+        final Map<String, List<ClassSession>> timetables;
+        final List<StudentRecord> studentRecords;             // Full student reload when non-null
+        final List<AttendanceJournal.Entry> journalEntries;   // Whole journal on a full reload, else only new entries
+        final List<Assignment> assignments;
+        final List<AssignmentSubmission> submissions;
+        final List<Event> events;
+        final List<EventPhoto> eventPhotos;
+        
+        DataSnapshot(Map<String, List<ClassSession>> timetables, List<StudentRecord> studentRecords,
+                     List<AttendanceJournal.Entry> journalEntries, List<Assignment> assignments,
+                     List<AssignmentSubmission> submissions, List<Event> events, List<EventPhoto> eventPhotos) {
+            this.timetables = timetables == null ? null : Collections.unmodifiableMap(timetables);
+            this.studentRecords = readOnly(studentRecords);
+            this.journalEntries = readOnly(journalEntries);
+            this.assignments = readOnly(assignments);
+            this.submissions = readOnly(submissions);
+            this.events = readOnly(events);
+            this.eventPhotos = readOnly(eventPhotos);
+        }
+        
+        private static <T> List<T> readOnly(List<T> list) {
+            return list == null ? null : Collections.unmodifiableList(list);
+        }
+        
+        boolean hasStudentData() {
+            return studentRecords != null || !journalEntries.isEmpty();
+        }
+        
+        boolean isEmpty() {
+            return timetables == null && !hasStudentData()
+                && assignments == null && submissions == null && events == null && eventPhotos == null;
+        }
+    }
+    
+    /**
+     * Reads the files that changed since they were last remembered (or all of
+     * them). Only touches the file tracker and the journal, never the in-memory model.
+     * Holds the folder lock so another client's save cannot land between
+     * reading the data file and the journal.
+     */
+    private DataSnapshot readSnapshot(boolean all) {
+        try {
+            return folderLock.call(() -> readFiles(all));
+        } catch (IOException e) {
+            System.out.println("Error locking data folder: " + e.getMessage());
+            return readFiles(all);
+        }
+    }
+    
+    private DataSnapshot readFiles(boolean all) {
+        Map<String, List<ClassSession>> timetables = null;
+        if (all || fileTracker.hasChanged(TIMETABLE_FILE)) {
+            fileTracker.remember(TIMETABLE_FILE);
+            timetables = readTimetables();
+        }
+        
+        // A timetable change alters the expected sessions, so resync students too
+        List<StudentRecord> studentRecords = null;
+        List<AttendanceJournal.Entry> journalEntries;
+        if (timetables != null || fileTracker.hasChanged(dataFile)) {
+            fileTracker.remember(dataFile);
+            studentRecords = readStudentRecords(dataFile);
+            journalEntries = journal.readAll();
+        } else {
+            journalEntries = journal.readNew();
+        }
+        
+        DataSnapshot snapshot = new DataSnapshot(timetables, studentRecords, journalEntries,
+            readIfChanged(all, ASSIGNMENTS_FILE, "assignments", Assignment::fromFileString),
+            readIfChanged(all, SUBMISSIONS_FILE, "submissions", AssignmentSubmission::fromFileString),
+            readIfChanged(all, EVENTS_FILE, "events", Event::fromFileString),
+            readIfChanged(all, EVENT_PHOTOS_FILE, "event photos", EventPhoto::fromFileString));
+        // Saves queued before this is applied must not trust their copies (see writeStudentData)
+        if (snapshot.hasStudentData()) studentSnapshotsRead++;
+        return snapshot;
+    }
+    
+    // Remembered before reading, so a write racing with the read is seen next time
+    private <T> List<T> readIfChanged(boolean all, String fileName, String label, Function<String, T> parser) {
+        if (!all && !fileTracker.hasChanged(fileName)) return null;
+        fileTracker.remember(fileName);
+        return readRecords(fileName, label, parser);
+    }
+    
+    private Set<DataChange> applySnapshot(DataSnapshot snapshot) {
+        Set<DataChange> changes = EnumSet.noneOf(DataChange.class);
+        
+        if (snapshot.timetables != null) {
+            courseTimetables.clear();
+            for (Map.Entry<String, List<ClassSession>> entry : snapshot.timetables.entrySet()) {
+                courseTimetables.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
+            rebuildDayIndex();
+            pastSessionKeyCache.clear();
+            changes.add(DataChange.TIMETABLES);
+        }
+        
+        if (snapshot.hasStudentData()) studentSnapshotsApplied++;
+        if (snapshot.studentRecords != null) {
+            if (loadStudents(snapshot.studentRecords, snapshot.journalEntries) > 0) {
+                changes.add(DataChange.STUDENTS);
+            }
+        } else if (applyJournalEntries(snapshot.journalEntries) > 0) {
+            changes.add(DataChange.STUDENTS);
+        }
+        
+        if (snapshot.assignments != null) {
+            assignments = new ArrayList<>(snapshot.assignments);
+            changes.add(DataChange.ASSIGNMENTS);
+        }
+        if (snapshot.submissions != null) {
+            submissions = new ArrayList<>(snapshot.submissions);
+            changes.add(DataChange.SUBMISSIONS);
+        }
+        if (snapshot.events != null) {
+            events = new ArrayList<>(snapshot.events);
+            changes.add(DataChange.EVENTS);
+        }
+        if (snapshot.eventPhotos != null) {
+            eventPhotos = new ArrayList<>(snapshot.eventPhotos);
+            changes.add(DataChange.PHOTOS);
+        }
+        
+        return changes;
     }
 }
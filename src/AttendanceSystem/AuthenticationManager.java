@@ -4,8 +4,10 @@ import java.io.*;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.Arrays;
+import java.util.Collections;
 
 // Authentication Manager with persistent user storage
 public class AuthenticationManager {
@@ -13,6 +15,11 @@ public class AuthenticationManager {
     private static final String USERS_FILE = "users_data.txt";
     private static boolean initialized = false;
     
+    /** One change to the users, applied to the users file's current contents. */
+    private interface UsersChange {
+        boolean apply(Map<String, User> users); // Returns whether anything changed
+    }
+    
     static {
         initializeUsers();
     }
@@ -21,40 +28,37 @@ public class AuthenticationManager {
         if (initialized) return;
         initialized = true;
         
-        // Load saved users first
-        loadUsersFromFile();
+        // Load saved users, adding the defaults that don't exist yet
+        updateUsers(AuthenticationManager::addDefaultUsers);
+    }
+    
+    private static boolean addDefaultUsers(Map<String, User> users) {
+        boolean changed = false;
         
         // Add default admin users if they don't exist
-        if (!users.containsKey("YASHGADIA")) {
-            users.put("YASHGADIA", new User("YASHGADIA", hashPassword("9v2vcurog"), "ADMIN", new String[]{}));
-        }
-        if (!users.containsKey("SWETAKUMARI")) {
-            users.put("SWETAKUMARI", new User("SWETAKUMARI", hashPassword("ChocoLava"), "ADMIN", new String[]{}));
-        }
+        changed |= users.putIfAbsent("YASHGADIA", new User("YASHGADIA", hashPassword("9v2vcurog"), "ADMIN", new String[]{})) == null;
+        changed |= users.putIfAbsent("SWETAKUMARI", new User("SWETAKUMARI", hashPassword("ChocoLava"), "ADMIN", new String[]{})) == null;
         
         // Add default teacher users if they don't exist
-        addDefaultTeacherIfNotExists("SHM", new String[]{"DSA-I", "DSA-I LAB", "R&P"});
-        addDefaultTeacherIfNotExists("RSB", new String[]{"OS", "OS LAB"});
-        addDefaultTeacherIfNotExists("DRV", new String[]{"AIC"});
-        addDefaultTeacherIfNotExists("AKS", new String[]{"OS LAB"});
-        addDefaultTeacherIfNotExists("SWT", new String[]{"DSA-I LAB"});
-        addDefaultTeacherIfNotExists("ADM", new String[]{"OOTS"});
-        addDefaultTeacherIfNotExists("BNM", new String[]{"TC"});
-        addDefaultTeacherIfNotExists("CHC", new String[]{"CAPP"});
-        addDefaultTeacherIfNotExists("RSP", new String[]{"AI", "AI LAB"});
-        addDefaultTeacherIfNotExists("ANK", new String[]{"DSA-I LAB"});
-        addDefaultTeacherIfNotExists("NZM", new String[]{"OS LAB"});
-        addDefaultTeacherIfNotExists("DPG", new String[]{"AI LAB"});
-        addDefaultTeacherIfNotExists("ASH", new String[]{"INTERNSHIP"});
-        addDefaultTeacherIfNotExists("ANU", new String[]{"INTERNSHIP"});
-        
-        saveUsersToFile();
+        changed |= addDefaultTeacherIfNotExists(users, "SHM", new String[]{"DSA-I", "DSA-I LAB", "R&P"});
+        changed |= addDefaultTeacherIfNotExists(users, "RSB", new String[]{"OS", "OS LAB"});
+        changed |= addDefaultTeacherIfNotExists(users, "DRV", new String[]{"AIC"});
+        changed |= addDefaultTeacherIfNotExists(users, "AKS", new String[]{"OS LAB"});
+        changed |= addDefaultTeacherIfNotExists(users, "SWT", new String[]{"DSA-I LAB"});
+        changed |= addDefaultTeacherIfNotExists(users, "ADM", new String[]{"OOTS"});
+        changed |= addDefaultTeacherIfNotExists(users, "BNM", new String[]{"TC"});
+        changed |= addDefaultTeacherIfNotExists(users, "CHC", new String[]{"CAPP"});
+        changed |= addDefaultTeacherIfNotExists(users, "RSP", new String[]{"AI", "AI LAB"});
+        changed |= addDefaultTeacherIfNotExists(users, "ANK", new String[]{"DSA-I LAB"});
+        changed |= addDefaultTeacherIfNotExists(users, "NZM", new String[]{"OS LAB"});
+        changed |= addDefaultTeacherIfNotExists(users, "DPG", new String[]{"AI LAB"});
+        changed |= addDefaultTeacherIfNotExists(users, "ASH", new String[]{"INTERNSHIP"});
+        changed |= addDefaultTeacherIfNotExists(users, "ANU", new String[]{"INTERNSHIP"});
+        return changed;
     }
     
-    private static void addDefaultTeacherIfNotExists(String username, String[] subjects) {
-        if (!users.containsKey(username)) {
-            users.put(username, new User(username, username.toLowerCase() + "123", "TEACHER", subjects));
-        }
+    private static boolean addDefaultTeacherIfNotExists(Map<String, User> users, String username, String[] subjects) {
+        return users.putIfAbsent(username, new User(username, username.toLowerCase() + "123", "TEACHER", subjects)) == null;
     }
     
     public static User authenticate(String username, String password) {
@@ -70,41 +74,31 @@ public class AuthenticationManager {
             } else if (storedPass.equals(password)) {
                 // Auto-migrate legacy plain text to hash
                 user.setPassword(inputHash);
-                saveUsersToFile();
+                updateUsers(current -> setPassword(current, user.getUsername(), password, inputHash));
                 return user;
             }
         }
         
         // 2. Check for Student (Simulated Login)
         // Password rule: ID + "123" (e.g., STU001 -> STU001123)
-        // We scan attendance_data.txt directly to avoid loading the whole system here.
-        File studentFile = new File("attendance_data.txt");
-        if (studentFile.exists()) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(studentFile))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    // ID|NAME|COURSE...
-                    String[] parts = line.split("\\|");
-                    if (parts.length >= 3) {
-                        String studentId = parts[0];
-                        String studentName = parts[1];
-                        String course = parts[2];
-                        
-                        if (studentId.equalsIgnoreCase(username)) {
-                            // Validate password
-                            String expectedPass = studentId + "123";
-                            // Students typically don't have stored hashes in this simple file system yet.
-                            // We verify against the rule.
-                            if (password.equals(expectedPass)) {
-                                User studentUser = new User(studentName, password, "STUDENT", new String[]{course});
-                                studentUser.setStudentId(studentId);
-                                return studentUser;
-                            }
-                        }
-                    }
-                }
-            } catch (IOException e) {
-                System.out.println("Error checking student login: " + e.getMessage());
+        // We read the student records directly to avoid loading the whole system here.
+        for (StudentRecord record : AttendanceSystem.readStudentRecords()) {
+            if (!record.getId().equalsIgnoreCase(username)) continue;
+            
+            Student student;
+            try {
+                student = record.toStudent();
+            } catch (IllegalArgumentException e) {
+                continue; // Malformed record: no name or course to log in with
+            }
+            // Validate password
+            String expectedPass = student.getId() + "123";
+            // Students typically don't have stored hashes in this simple file system yet.
+            // We verify against the rule.
+            if (password.equals(expectedPass)) {
+                User studentUser = new User(student.getName(), password, "STUDENT", new String[]{student.getCourse()});
+                studentUser.setStudentId(student.getId());
+                return studentUser;
             }
         }
         
@@ -123,31 +117,50 @@ public class AuthenticationManager {
      * Returns true if a new teacher was created, false if already exists
      */
     public static boolean addTeacherIfNotExists(String username, String subject) {
-        String upperUsername = username.toUpperCase().trim();
-        if (upperUsername.isEmpty()) return false;
-        
-        if (users.containsKey(upperUsername)) {
-            // Teacher exists, add subject to their list if not already present
-            User existingUser = users.get(upperUsername);
-            if (existingUser.getRole().equals("TEACHER")) {
-                Set<String> subjects = new HashSet<>(Arrays.asList(existingUser.getSubjects()));
-                if (!subjects.contains(subject)) {
-                    subjects.add(subject);
-                    existingUser.setSubjects(subjects.toArray(new String[0]));
-                    saveUsersToFile();
+        return !addTeachersIfNotExist(Collections.singletonMap(username, Collections.singleton(subject))).isEmpty();
+    }
+    
+    /**
+     * Batch form of addTeacherIfNotExists: creates missing teachers and adds
+     * new subjects to existing ones, then saves the users file once.
+     * Returns the usernames of the teachers that were created.
+     */
+    public static Set<String> addTeachersIfNotExist(Map<String, ? extends Set<String>> subjectsByTeacher) {
+        Set<String> created = new LinkedHashSet<>();
+        updateUsers(users -> addTeachers(users, subjectsByTeacher, created));
+        return created;
+    }
+    
+    private static boolean addTeachers(Map<String, User> users, Map<String, ? extends Set<String>> subjectsByTeacher,
+                                       Set<String> created) {
+        boolean changed = false;
+        for (Map.Entry<String, ? extends Set<String>> entry : subjectsByTeacher.entrySet()) {
+            String upperUsername = entry.getKey().toUpperCase().trim();
+            if (upperUsername.isEmpty()) continue;
+            
+            if (users.containsKey(upperUsername)) {
+                // Teacher exists, add subjects to their list if not already present
+                User existingUser = users.get(upperUsername);
+                if (existingUser.getRole().equals("TEACHER")) {
+                    Set<String> subjects = new LinkedHashSet<>(Arrays.asList(existingUser.getSubjects()));
+                    if (subjects.addAll(entry.getValue())) {
+                        existingUser.setSubjects(subjects.toArray(new String[0]));
+                        changed = true;
+                    }
                 }
+                continue;
             }
-            return false;
+            
+            // Create new teacher with password = username123
+            String rawPassword = upperUsername.toLowerCase() + "123";
+            User newTeacher = new User(upperUsername, hashPassword(rawPassword), "TEACHER", entry.getValue().toArray(new String[0]));
+            users.put(upperUsername, newTeacher);
+            created.add(upperUsername);
+            changed = true;
+            
+            System.out.println("New teacher created: " + upperUsername + " / " + rawPassword);
         }
-        
-        // Create new teacher with password = username123
-        String rawPassword = upperUsername.toLowerCase() + "123";
-        User newTeacher = new User(upperUsername, hashPassword(rawPassword), "TEACHER", new String[]{subject});
-        users.put(upperUsername, newTeacher);
-        saveUsersToFile();
-        
-        System.out.println("New teacher created: " + upperUsername + " / " + rawPassword);
-        return true;
+        return changed;
     }
     
     /**
@@ -166,20 +179,21 @@ public class AuthenticationManager {
      * Returns true if successful, false if old password doesn't match
      */
     public static boolean changePassword(String username, String oldPassword, String newPassword) {
-        User user = users.get(username.toUpperCase());
+        // Checked against the file, in case another client changed the password since
+        return updateUsers(users -> setPassword(users, username.toUpperCase(), oldPassword, hashPassword(newPassword)));
+    }
+    
+    // Sets a user's password hash if the old password (hash OR plain) still matches
+    private static boolean setPassword(Map<String, User> users, String username, String oldPassword, String newHash) {
+        User user = users.get(username);
         if (user == null) return false;
         
         String storedPass = user.getPassword();
-        String oldHash = hashPassword(oldPassword);
-        
-        // Verify old password (check hash OR plain)
-        if (!storedPass.equals(oldHash) && !storedPass.equals(oldPassword)) {
+        if (!storedPass.equals(hashPassword(oldPassword)) && !storedPass.equals(oldPassword)) {
             return false;
         }
         
-        // Save new password as hash
-        user.setPassword(hashPassword(newPassword));
-        saveUsersToFile();
+        user.setPassword(newHash);
         return true;
     }
     
@@ -210,14 +224,18 @@ public class AuthenticationManager {
             String line;
             while ((line = reader.readLine()) != null) {
                 // Format: USERNAME|PASSWORD|ROLE|SUBJECT1,SUBJECT2,...
-                String[] parts = line.split("\\|");
-                if (parts.length >= 3) {
-                    String username = parts[0];
-                    String password = parts[1];
-                    String role = parts[2];
-                    String[] subjects = parts.length > 3 && !parts[3].isEmpty() 
-                        ? parts[3].split(",") 
-                        : new String[]{};
+                LineCursor cursor = LineCursor.of(line);
+                int fieldCount = cursor.countFields('|');
+                if (fieldCount >= 3) {
+                    String username = cursor.nextField('|');
+                    String password = cursor.nextField('|');
+                    String role = cursor.nextField('|');
+                    String[] subjects = new String[]{};
+                    if (fieldCount > 3 && cursor.next('|') && !cursor.fieldIsEmpty()) {
+                        cursor.enterField();
+                        subjects = cursor.nextFields(',', cursor.countFields(','));
+                        cursor.exitField();
+                    }
                     users.put(username, new User(username, password, role, subjects));
                 }
             }
@@ -226,15 +244,34 @@ public class AuthenticationManager {
         }
     }
     
-    private static void saveUsersToFile() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(USERS_FILE))) {
+    /**
+     * Re-reads the users file under the folder lock, applies one change to it
+     * and writes it back only if something changed. Users that other clients
+     * added, edited or removed are kept as they are on disk; only this change is
+     * applied on top, never this client's older copies. Returns whether the change applied.
+     */
+    private static boolean updateUsers(UsersChange change) {
+        try {
+            return DataFolderLock.forWorkingDirectory().call(() -> {
+                users.clear();
+                loadUsersFromFile();
+                if (!change.apply(users)) return false;
+                writeUsersFile();
+                return true;
+            });
+        } catch (IOException e) {
+            System.err.println("Error saving users: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void writeUsersFile() throws IOException {
+        AtomicFileWriter.write(USERS_FILE, out -> {
             for (Map.Entry<String, User> entry : users.entrySet()) {
                 User user = entry.getValue();
                 String subjects = String.join(",", user.getSubjects());
-                writer.println(user.getUsername() + "|" + user.getPassword() + "|" + user.getRole() + "|" + subjects);
+                out.writeLine(user.getUsername() + "|" + user.getPassword() + "|" + user.getRole() + "|" + subjects);
             }
-        } catch (IOException e) {
-            System.err.println("Error saving users: " + e.getMessage());
-        }
+        });
     }
 }
@@ -0,0 +1,260 @@
+package AttendanceSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary form of the student data, read into memory with one bulk read.
+ * Every string (IDs, names, courses, session keys) is stored once in a
+ * length-prefixed string table. Each course has a session-key dictionary, and
+ * each student stores its recorded, present and self-marked sessions as
+ * bitsets over that dictionary, so loading involves no splitting or substrings.
+ *
+ * Layout (big-endian):
+ *   int MAGIC, int VERSION
+ *   int stringCount, then per string: int byteLength, UTF-8 bytes
+ *   int courseCount, then per course: int courseString, int keyCount, int keyString...
+ *   int studentCount, then per student: int recordLength, then the record:
+ *     int idString, int nameString, int courseIndex, 3 x (int wordCount, long word...)
+ */
+public class BinaryStudentSnapshot {
+    private static final int MAGIC = 0x41544431; // "ATD1"
+    private static final int VERSION = 1;
+
+    // A course dictionary as stored in one file
+    private static final class FileDictionary {
+        final String course;
+        final String[] keys;
+        private int[] sessionIds;   // File index -> SessionDictionary ID, built on first use
+        private boolean sameIds;    // This process assigned the same IDs as the writer, the usual case
+
+        FileDictionary(String course, String[] keys) {
+            this.course = course;
+            this.keys = keys;
+        }
+
+        BitSet toSessionIds(long[] words) {
+            if (sessionIds == null) {
+                SessionDictionary dictionary = SessionDictionary.forCourse(course);
+                sessionIds = new int[keys.length];
+                sameIds = true;
+                for (int i = 0; i < keys.length; i++) {
+                    sessionIds[i] = dictionary.intern(keys[i]);
+                    sameIds &= sessionIds[i] == i;
+                }
+            }
+
+            BitSet bits = BitSet.valueOf(words);
+            if (sameIds) return bits;
+
+            BitSet mapped = new BitSet();
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                mapped.set(sessionIds[i]);
+            }
+            return mapped;
+        }
+    }
+
+    // One decoded record; bitsets are still in file dictionary indexes
+    private static final class BinaryRecord extends StudentRecord {
+        private final String id;
+        private final String name;
+        private final FileDictionary dictionary;
+        private final long[] recorded;
+        private final long[] present;
+        private final long[] selfMarked;
+        private final long hash;
+
+        BinaryRecord(String id, String name, FileDictionary dictionary,
+                     long[] recorded, long[] present, long[] selfMarked, long hash) {
+            this.id = id;
+            this.name = name;
+            this.dictionary = dictionary;
+            this.recorded = recorded;
+            this.present = present;
+            this.selfMarked = selfMarked;
+            this.hash = hash;
+        }
+
+        @Override
+        String getId() {
+            return id;
+        }
+
+        @Override
+        long getHash() {
+            return hash;
+        }
+
+        @Override
+        Student toStudent() {
+            return Student.fromSessionIds(name, id, dictionary.course, dictionary.toSessionIds(recorded),
+                dictionary.toSessionIds(present), dictionary.toSessionIds(selfMarked));
+        }
+    }
+
+    /**
+     * Reads every record of a snapshot file. A missing file gives an empty list;
+     * a damaged one is reported and gives the records read before the damage.
+     */
+    static List<StudentRecord> read(String fileName) {
+        List<StudentRecord> records = new ArrayList<>();
+        File file = new File(fileName);
+        if (!file.exists()) return records;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // Read, not mapped: Windows cannot replace a file while a mapping of it is alive,
+            // and a mapping is only unmapped when the buffer is garbage collected
+            ByteBuffer in = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+            while (in.hasRemaining() && channel.read(in) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            in.flip();
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("not an attendance snapshot");
+            }
+
+            String[] strings = new String[in.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            FileDictionary[] dictionaries = new FileDictionary[in.getInt()];
+            for (int i = 0; i < dictionaries.length; i++) {
+                String course = strings[in.getInt()];
+                String[] keys = new String[in.getInt()];
+                for (int k = 0; k < keys.length; k++) {
+                    keys[k] = strings[in.getInt()];
+                }
+                dictionaries[i] = new FileDictionary(course, keys);
+            }
+
+            int studentCount = in.getInt();
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < studentCount; i++) {
+                int length = in.getInt();
+                ByteBuffer record = in.slice();
+                record.limit(length);
+                crc.reset();
+                crc.update(record.duplicate());
+
+                String id = strings[record.getInt()];
+                String name = strings[record.getInt()];
+                FileDictionary dictionary = dictionaries[record.getInt()];
+                long[] recorded = readWords(record);
+                long[] present = readWords(record);
+                long[] selfMarked = readWords(record);
+                records.add(new BinaryRecord(id, name, dictionary, recorded, present, selfMarked,
+                    (crc.getValue() << 32) | length));
+                in.position(in.position() + length);
+            }
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                 | NegativeArraySizeException | ArithmeticException e) {
+            System.out.println("Error loading data: " + fileName + " is damaged (" + e + ")");
+        }
+        return records;
+    }
+
+    private static long[] readWords(ByteBuffer in) {
+        long[] words = new long[in.getInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.getLong();
+        }
+        return words;
+    }
+
+    /**
+     * Replaces a snapshot file with the given students.
+     */
+    static void write(String fileName, List<Student> students) throws IOException {
+        Map<String, Integer> stringIds = new LinkedHashMap<>();
+        Map<SessionDictionary, Integer> dictionaryIds = new IdentityHashMap<>();
+        List<SessionDictionary> dictionaries = new ArrayList<>();
+        List<String[]> dictionaryKeys = new ArrayList<>();
+
+        for (Student s : students) {
+            stringId(stringIds, s.getId());
+            stringId(stringIds, s.getName());
+            SessionDictionary dictionary = s.getSessionDictionary();
+            if (!dictionaryIds.containsKey(dictionary)) {
+                dictionaryIds.put(dictionary, dictionaries.size());
+                dictionaries.add(dictionary);
+                // The dictionary only grows, so every ID a student holds is below size()
+                String[] keys = new String[dictionary.size()];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = dictionary.keyOf(i);
+                    stringId(stringIds, keys[i]);
+                }
+                stringId(stringIds, dictionary.getCourse());
+                dictionaryKeys.add(keys);
+            }
+        }
+
+        AtomicFileWriter.write(fileName, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(stringIds.size());
+            for (String string : stringIds.keySet()) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.writeBytes(bytes);
+            }
+
+            out.writeInt(dictionaries.size());
+            for (int i = 0; i < dictionaries.size(); i++) {
+                out.writeInt(stringIds.get(dictionaries.get(i).getCourse()));
+                String[] keys = dictionaryKeys.get(i);
+                out.writeInt(keys.length);
+                for (String key : keys) {
+                    out.writeInt(stringIds.get(key));
+                }
+            }
+
+            out.writeInt(students.size());
+            for (Student s : students) {
+                long[] recorded = s.getRecordedSessionIds().toLongArray();
+                long[] present = s.getPresentSessionIds().toLongArray();
+                long[] selfMarked = s.getSelfMarkedSessionIds().toLongArray();
+                int length = 3 * Integer.BYTES + 3 * Integer.BYTES
+                    + Long.BYTES * (recorded.length + present.length + selfMarked.length);
+
+                out.writeInt(length);
+                out.writeInt(stringIds.get(s.getId()));
+                out.writeInt(stringIds.get(s.getName()));
+                out.writeInt(dictionaryIds.get(s.getSessionDictionary()));
+                writeWords(out, recorded);
+                writeWords(out, present);
+                writeWords(out, selfMarked);
+            }
+        });
+    }
+
+    private static void writeWords(AtomicFileWriter out, long[] words) throws IOException {
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    private static int stringId(Map<String, Integer> stringIds, String string) {
+        Integer id = stringIds.get(string);
+        if (id != null) return id;
+        stringIds.put(string, stringIds.size());
+        return stringIds.size() - 1;
+    }
+}
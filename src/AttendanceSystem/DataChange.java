@@ -0,0 +1,11 @@
+package AttendanceSystem;
+
+// Kinds of shared data that can change on disk and need a UI refresh
+public enum DataChange {
+    STUDENTS,
+    TIMETABLES,
+    EVENTS,
+    PHOTOS,
+    ASSIGNMENTS,
+    SUBMISSIONS
+}
@@ -0,0 +1,99 @@
+package AttendanceSystem;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the data directory for changes to the shared data files and
+ * fires a single callback once a burst of file events has settled.
+ * Runs on its own daemon thread; the callback must hand work off to
+ * whichever thread owns the data (the EDT in the GUI).
+ */
+public class DataDirectoryWatcher {
+    private static final long DEBOUNCE_MS = 300;
+    // Network shares may not deliver events, so check occasionally anyway
+    private static final long FALLBACK_CHECK_SECONDS = 30;
+
+    private final Path directory;
+    private final Set<String> watchedFiles;
+    private final Runnable onChange;
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running;
+
+    public DataDirectoryWatcher(Path directory, Set<String> watchedFiles, Runnable onChange) {
+        this.directory = directory;
+        this.watchedFiles = watchedFiles;
+        this.onChange = onChange;
+    }
+
+    public void start() {
+        if (running) return;
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            System.out.println("Error watching data directory: " + e.getMessage());
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this::run, "data-directory-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (thread != null) thread.interrupt();
+        try {
+            if (watchService != null) watchService.close();
+        } catch (IOException e) {
+            System.out.println("Error closing data watcher: " + e.getMessage());
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                WatchKey key = watchService.poll(FALLBACK_CHECK_SECONDS, TimeUnit.SECONDS);
+                if (key == null) {
+                    onChange.run(); // Periodic safety check
+                    continue;
+                }
+
+                boolean relevant = drain(key);
+                // Debounce: keep collecting until the directory has been quiet for a moment
+                while ((key = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(key);
+                }
+                if (relevant) {
+                    onChange.run();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            }
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true; // Events were lost, let the reload decide
+                continue;
+            }
+            Object context = event.context();
+            if (context instanceof Path && watchedFiles.contains(((Path) context).getFileName().toString())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+}
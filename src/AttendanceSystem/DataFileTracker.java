@@ -0,0 +1,87 @@
+package AttendanceSystem;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Remembers the last seen size, modification time and checksum of data files
+ * so reloads can skip files that have not changed on disk.
+ * Thread-safe: files are saved and checked on the background I/O thread.
+ */
+public class DataFileTracker {
+    private static class Fingerprint {
+        final long size;
+        final long modified;
+        final long checksum;
+
+        Fingerprint(long size, long modified, long checksum) {
+            this.size = size;
+            this.modified = modified;
+            this.checksum = checksum;
+        }
+    }
+
+    private final Map<String, Fingerprint> seen = new HashMap<>();
+
+    /**
+     * Records the current state of a file, typically right after this
+     * process loaded or saved it.
+     */
+    public synchronized void remember(String path) {
+        File file = new File(path);
+        if (!file.exists()) {
+            seen.remove(path);
+            return;
+        }
+        seen.put(path, new Fingerprint(file.length(), file.lastModified(), checksum(file)));
+    }
+
+    /**
+     * Returns true if the file differs from what was last remembered.
+     * Size and mtime are checked first; the checksum is only computed
+     * when they differ, so a touched but identical file is not a change.
+     */
+    public synchronized boolean hasChanged(String path) {
+        File file = new File(path);
+        Fingerprint last = seen.get(path);
+        if (!file.exists()) {
+            return last != null;
+        }
+        if (last == null) {
+            return true;
+        }
+
+        long size = file.length();
+        long modified = file.lastModified();
+        if (size == last.size && modified == last.modified) {
+            return false;
+        }
+
+        long sum = checksum(file);
+        if (size == last.size && sum == last.checksum) {
+            seen.put(path, new Fingerprint(size, modified, sum)); // Touched only
+            return false;
+        }
+        return true;
+    }
+
+    private static long checksum(File file) {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            System.out.println("Error checksumming " + file.getName() + ": " + e.getMessage());
+            return -1;
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,79 @@
+package AttendanceSystem;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive lock shared by every client using the same data folder.
+ * Writers hold it only while they re-read, merge and replace a file, so two
+ * clients never overwrite each other's changes. Other processes are excluded
+ * with a FileChannel lock on a lock file; threads of this process with a
+ * plain ReentrantLock, because a JVM cannot hold two file locks on one file.
+ * Re-entering on the same thread does not lock the file again.
+ */
+public class DataFolderLock {
+    public static final String LOCK_FILE = "attendance.lock";
+
+    private static final Map<Path, DataFolderLock> LOCKS = new ConcurrentHashMap<>();
+
+    /** Work done while holding the lock. */
+    public interface Action<T> {
+        T run() throws IOException;
+    }
+
+    public interface Task {
+        void run() throws IOException;
+    }
+
+    private final Path lockFile;
+    private final ReentrantLock localLock = new ReentrantLock();
+
+    private DataFolderLock(Path lockFile) {
+        this.lockFile = lockFile;
+    }
+
+    /**
+     * Returns the lock for the data folder in the working directory.
+     */
+    public static DataFolderLock forWorkingDirectory() {
+        return forFile(LOCK_FILE);
+    }
+
+    public static DataFolderLock forFile(String fileName) {
+        Path path = Paths.get(fileName).toAbsolutePath().normalize();
+        return LOCKS.computeIfAbsent(path, DataFolderLock::new);
+    }
+
+    public <T> T call(Action<T> action) throws IOException {
+        localLock.lock();
+        try {
+            if (localLock.getHoldCount() > 1) {
+                return action.run();
+            }
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    return action.run();
+                } finally {
+                    lock.release();
+                }
+            }
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    public void run(Task task) throws IOException {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+}
@@ -64,10 +64,12 @@ public class Event implements Serializable {
     }
 
     public static Event fromFileString(String line) {
-        String[] parts = line.split("\\|", -1);
-        if (parts.length >= 8) {
-            String affected = parts.length > 8 ? parts[8] : "";
-            String code = parts.length > 9 ? parts[9] : "0000"; // Default legacy
+        LineCursor cursor = LineCursor.of(line);
+        int fieldCount = cursor.countAllFields('|'); // Empty trailing fields count here
+        if (fieldCount >= 8) {
+            String[] parts = cursor.nextFields('|', 8);
+            String affected = fieldCount > 8 ? cursor.nextField('|') : "";
+            String code = fieldCount > 9 ? cursor.nextField('|') : "0000"; // Default legacy
             return new Event(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5], parts[6], parts[7], affected, code);
         }
         return null;
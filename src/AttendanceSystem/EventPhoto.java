@@ -38,8 +38,9 @@ public class EventPhoto implements Serializable {
     }
 
     public static EventPhoto fromFileString(String line) {
-        String[] parts = line.split("\\|");
-        if (parts.length >= 5) {
+        LineCursor cursor = LineCursor.of(line);
+        if (cursor.countFields('|') >= 5) {
+            String[] parts = cursor.nextFields('|', 5);
             return new EventPhoto(parts[0], parts[1], parts[2], parts[3], parts[4]);
         }
         return null;
@@ -0,0 +1,219 @@
+package AttendanceSystem;
+
+/**
+ * Cursor over one line of a delimited data file, used by the loaders instead
+ * of String.split. The line is copied into a reusable char buffer and fields
+ * are visited in order, so no regex, arrays or strings are created for fields
+ * that are only checked or skipped. A field can be entered to split it
+ * further, e.g. the ';'-separated sessions inside a student record.
+ *
+ * Each thread has one cursor (see of()); a parser must finish with it before
+ * calling another parser.
+ */
+final class LineCursor {
+    private static final ThreadLocal<LineCursor> CURSORS = ThreadLocal.withInitial(LineCursor::new);
+    private static final int TEXT_CACHE_SIZE = 1024;
+
+    private char[] chars = new char[256];
+    private int length;
+
+    // Range being split (the line, or the entered field)
+    private int rangeStart;
+    private int limit;
+    // Current field is chars[start, end); end == -1 before the first next()
+    private int start;
+    private int end;
+    // Outer state while inside a field
+    private int outerRangeStart;
+    private int outerLimit;
+    private int outerStart;
+    private int outerEnd;
+
+    // Strings handed out by text(); lines of one file repeat the same session keys in order
+    private final String[] textCache = new String[TEXT_CACHE_SIZE];
+
+    private LineCursor() {
+    }
+
+    /**
+     * Returns this thread's cursor, positioned before the first field of the line.
+     */
+    static LineCursor of(String line) {
+        return CURSORS.get().reset(line);
+    }
+
+    LineCursor reset(String line) {
+        length = line.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        line.getChars(0, length, chars, 0);
+        rangeStart = 0;
+        limit = length;
+        start = 0;
+        end = -1;
+        return this;
+    }
+
+    /**
+     * Number of fields in the current range, as String.split(delimiter).length:
+     * trailing empty fields are not counted, and a range without any
+     * delimiter is one field even if it is empty.
+     */
+    int countFields(char delimiter) {
+        int fields = 1;
+        int lastNonEmpty = 0;   // Fields up to and including the last non-empty one
+        boolean sawDelimiter = false;
+        int fieldStart = rangeStart;
+        for (int i = rangeStart; i < limit; i++) {
+            if (chars[i] == delimiter) {
+                sawDelimiter = true;
+                if (i > fieldStart) lastNonEmpty = fields;
+                fields++;
+                fieldStart = i + 1;
+            }
+        }
+        if (!sawDelimiter) return 1;
+        if (limit > fieldStart) lastNonEmpty = fields;
+        return lastNonEmpty;
+    }
+
+    /**
+     * Number of fields in the current range, as String.split(delimiter, -1).length.
+     */
+    int countAllFields(char delimiter) {
+        int fields = 1;
+        for (int i = rangeStart; i < limit; i++) {
+            if (chars[i] == delimiter) fields++;
+        }
+        return fields;
+    }
+
+    /**
+     * Moves to the next field. Returns false when the range has no more fields.
+     */
+    boolean next(char delimiter) {
+        int from = end < 0 ? rangeStart : end + 1;
+        if (from > limit) return false;
+        start = from;
+        end = from;
+        while (end < limit && chars[end] != delimiter) end++;
+        return true;
+    }
+
+    /**
+     * Moves to the next field and returns it.
+     */
+    String nextField(char delimiter) {
+        if (!next(delimiter)) {
+            throw new IllegalStateException("No more fields");
+        }
+        return field();
+    }
+
+    /**
+     * Reads the next count fields into an array; the range must have them.
+     */
+    String[] nextFields(char delimiter, int count) {
+        String[] fields = new String[count];
+        for (int i = 0; i < count; i++) {
+            fields[i] = nextField(delimiter);
+        }
+        return fields;
+    }
+
+    String field() {
+        return new String(chars, start, end - start);
+    }
+
+    boolean fieldIsEmpty() {
+        return start == end;
+    }
+
+    boolean fieldEquals(String text) {
+        if (text.length() != end - start) return false;
+        for (int i = 0; i < text.length(); i++) {
+            if (chars[start + i] != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // Same comparison as String.equalsIgnoreCase
+    boolean fieldEqualsIgnoreCase(String text) {
+        if (text.length() != end - start) return false;
+        for (int i = 0; i < text.length(); i++) {
+            char a = chars[start + i];
+            char b = text.charAt(i);
+            if (a == b) continue;
+            char upperA = Character.toUpperCase(a);
+            char upperB = Character.toUpperCase(b);
+            if (upperA != upperB && Character.toLowerCase(upperA) != Character.toLowerCase(upperB)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Index of the last occurrence of c in the current field, or -1.
+     * Indexes are positions in the line, for use with text() and charAt().
+     */
+    int lastIndexInField(char c) {
+        for (int i = end - 1; i >= start; i--) {
+            if (chars[i] == c) return i;
+        }
+        return -1;
+    }
+
+    int fieldStart() {
+        return start;
+    }
+
+    int fieldEnd() {
+        return end;
+    }
+
+    char charAt(int index) {
+        return chars[index];
+    }
+
+    /**
+     * The text between two line positions. Repeated values, like the same
+     * session key in every student's line, come back as the same String:
+     * slot should be stable for a value across lines (e.g. its position in the line).
+     */
+    String text(int from, int to, int slot) {
+        int index = slot & (TEXT_CACHE_SIZE - 1);
+        String cached = textCache[index];
+        if (cached != null && regionEquals(cached, from, to)) return cached;
+        String text = new String(chars, from, to - from);
+        textCache[index] = text;
+        return text;
+    }
+
+    private boolean regionEquals(String text, int from, int to) {
+        if (text.length() != to - from) return false;
+        for (int i = to - 1; i >= from; i--) {
+            if (chars[i] != text.charAt(i - from)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Splits the current field from now on, until exitField().
+     */
+    void enterField() {
+        outerRangeStart = rangeStart;
+        outerLimit = limit;
+        outerStart = start;
+        outerEnd = end;
+        rangeStart = start;
+        limit = end;
+        end = -1;
+    }
+
+    void exitField() {
+        rangeStart = outerRangeStart;
+        limit = outerLimit;
+        start = outerStart;
+        end = outerEnd;
+    }
+}
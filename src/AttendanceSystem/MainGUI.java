@@ -5,6 +5,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Main GUI class for the Attendance Management System.
@@ -18,10 +19,11 @@ public class MainGUI extends JFrame {
     private Map<String, BasePanel> panels;
     private StudentActions studentActions;
     private JPanel navButtonsPanel;
+    private JLabel studentCountLabel;
     private JLabel avgAttendanceLabel;
-    private javax.swing.Timer statsTimer;
     private JComboBox<String> courseFilter;
     private String currentCourseFilter = "All Courses";
+    private boolean headerUpdateQueued;
 
     // Panel identifiers
     public static final String PANEL_TABLE = "table";
@@ -32,8 +34,12 @@ public class MainGUI extends JFrame {
     public static final String PANEL_EVENTS = "events";
 
     public MainGUI(User user) {
+        this(user, new AttendanceSystem());
+    }
+
+    public MainGUI(User user, AttendanceSystem system) {
         this.currentUser = user;
-        this.system = new AttendanceSystem();
+        this.system = system;
         this.panels = new HashMap<>();
         
         setTitle("Attendance Management System");
@@ -48,22 +54,76 @@ public class MainGUI extends JFrame {
             updateCourseDropdown();
             refreshAllPanels();
         });
+        studentActions.setCourseFilter(this::getCurrentCourseFilter);
 
         initComponents();
 
-        // Start stats update timer (every 5 seconds)
-        statsTimer = new javax.swing.Timer(5000, e -> {
-            updateHeaderStats();
-            system.reloadData(); // Refresh data from file
+        // The header follows the running totals, whether marked here or reloaded.
+        // Pick up changes from other users as soon as the data files change;
+        // panels subscribe themselves.
+        system.addTotalsListener(this::queueHeaderUpdate);
+        system.startWatching(SwingUtilities::invokeLater);
+    }
+    
+    @Override
+    public void dispose() {
+        super.dispose();
+        // Stop watching and finish queued writes off the EDT, so a slow final
+        // write does not freeze the closing window. Not a daemon, so the JVM waits for it.
+        new Thread(system::close, "attendance-close").start();
+    }
+    
+    /**
+     * Loads the data files on a background thread while a loading window is
+     * shown, then opens the main window on the EDT.
+     */
+    public static void launch(User user) {
+        JWindow loadingWindow = createLoadingWindow();
+        loadingWindow.setVisible(true);
+        
+        new SwingWorker<AttendanceSystem, Void>() {
+            @Override
+            protected AttendanceSystem doInBackground() {
+                return new AttendanceSystem();
+            }
             
-            // Refresh current panel if visible
-            for (BasePanel panel : panels.values()) {
-                if (panel.isVisible()) {
-                    panel.onShow(); // This triggers refresh
+            @Override
+            protected void done() {
+                loadingWindow.dispose();
+                try {
+                    new MainGUI(user, get()).setVisible(true);
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(null, "Error loading data: " + cause.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    System.exit(1);
                 }
             }
-        });
-        statsTimer.start();
+        }.execute();
+    }
+    
+    private static JWindow createLoadingWindow() {
+        JWindow window = new JWindow();
+        JPanel content = new JPanel(new BorderLayout(0, DesignSystem.SPACING_MD));
+        content.setBackground(DesignSystem.SURFACE);
+        content.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(DesignSystem.BORDER),
+            BorderFactory.createEmptyBorder(DesignSystem.SPACING_LG, DesignSystem.SPACING_XL,
+                DesignSystem.SPACING_LG, DesignSystem.SPACING_XL)));
+        
+        JLabel label = new JLabel("Loading attendance data...");
+        label.setFont(DesignSystem.FONT_BODY_BOLD);
+        label.setForeground(DesignSystem.TEXT_PRIMARY);
+        content.add(label, BorderLayout.NORTH);
+        
+        JProgressBar progress = new JProgressBar();
+        progress.setIndeterminate(true);
+        content.add(progress, BorderLayout.CENTER);
+        
+        window.setContentPane(content);
+        window.pack();
+        window.setLocationRelativeTo(null);
+        return window;
     }
     
     public String getCurrentCourseFilter() {
@@ -551,21 +611,12 @@ public class MainGUI extends JFrame {
         JPanel statsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, DesignSystem.SPACING_MD, 0));
         statsPanel.setOpaque(false);
 
-        int studentCount = system.getStudentCount();
-        statsPanel.add(createMiniStatCard("Total Students", new JLabel(String.valueOf(studentCount)), "users", DesignSystem.PRIMARY));
+        studentCountLabel = new JLabel();
+        statsPanel.add(createMiniStatCard("Total Students", studentCountLabel, "users", DesignSystem.PRIMARY));
         
-        // Calculate average attendance
-        Student[] students = system.getAllStudents();
-        double avgAttendance = 0;
-        if (students.length > 0) {
-            for (Student s : students) {
-                avgAttendance += s.getAttendancePercentage();
-            }
-            avgAttendance /= students.length;
-        }
-        
-        avgAttendanceLabel = new JLabel(String.format("%.1f%%", avgAttendance));
+        avgAttendanceLabel = new JLabel();
         statsPanel.add(createMiniStatCard("Avg Attendance", avgAttendanceLabel, "chart", DesignSystem.SUCCESS));
+        updateHeaderStats();
 
         header.add(statsPanel, BorderLayout.EAST);
 
@@ -647,18 +698,23 @@ public class MainGUI extends JFrame {
         return card;
     }
     
+    // Totals change once per student touched, so a batch of marks repaints the header once
+    private void queueHeaderUpdate() {
+        if (headerUpdateQueued) return;
+        headerUpdateQueued = true;
+        SwingUtilities.invokeLater(() -> {
+            headerUpdateQueued = false;
+            updateHeaderStats();
+        });
+    }
+    
+    // Totals are kept by AttendanceSystem, so this is cheap enough for every change
     private void updateHeaderStats() {
         if (avgAttendanceLabel == null) return;
 
-        Student[] students = system.getAllStudents();
-        double avgAttendance = 0;
-        if (students.length > 0) {
-            for (Student s : students) {
-                avgAttendance += s.getAttendancePercentage();
-            }
-            avgAttendance /= students.length;
-        }
-        avgAttendanceLabel.setText(String.format("%.1f%%", avgAttendance));
+        AttendanceRollup rollup = system.getAttendanceRollup(currentCourseFilter);
+        studentCountLabel.setText(String.valueOf(rollup.getStudentCount()));
+        avgAttendanceLabel.setText(String.format("%.1f%%", rollup.getAverageAttendance()));
     }
 
     private void initializePanels() {
@@ -669,7 +725,9 @@ public class MainGUI extends JFrame {
         addStudentPanel.setOnDataChanged(() -> refreshAllPanels());
         registerPanel(PANEL_ADD_STUDENT, addStudentPanel);
 
+        // Marks only change the totals, so only the header needs refreshing
         AttendancePanel attendancePanel = new AttendancePanel(system, currentUser);
+        attendancePanel.setOnDataChanged(this::updateHeaderStats);
         registerPanel(PANEL_ATTENDANCE, attendancePanel);
 
         TimetablePanel timetablePanel = new TimetablePanel(system, currentUser);
@@ -679,6 +737,7 @@ public class MainGUI extends JFrame {
         registerPanel(PANEL_ASSIGNMENT, assignmentPanel);
         
         EventPanel eventPanel = new EventPanel(system, currentUser);
+        eventPanel.setOnDataChanged(this::updateHeaderStats);
         registerPanel(PANEL_EVENTS, eventPanel);
     }
 
@@ -716,7 +775,7 @@ public class MainGUI extends JFrame {
                 loginDialog.setVisible(true);
                 User user = loginDialog.getLoggedInUser();
                 if (user != null) {
-                    new MainGUI(user).setVisible(true);
+                    launch(user);
                 } else {
                     System.exit(0);
                 }
@@ -737,7 +796,7 @@ public class MainGUI extends JFrame {
 
             User user = loginDialog.getLoggedInUser();
             if (user != null) {
-                new MainGUI(user).setVisible(true);
+                launch(user);
             } else {
                 System.exit(0);
             }
@@ -0,0 +1,148 @@
+package AttendanceSystem;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared per-course dictionary of session keys ("DATE#TIMESLOT#SUBJECT").
+ * Each key string is stored once and mapped to a small int ID, so students
+ * can record attendance as bitsets instead of holding their own copy of
+ * every key. IDs are never reused or removed while the program runs.
+ * Each key is also split into its date, time slot and subject once, when it
+ * is first interned, so per-subject and per-month figures need no parsing.
+ */
+public final class SessionDictionary {
+    private static final Map<String, SessionDictionary> BY_COURSE = new HashMap<>();
+    static final String OTHER_SUBJECT = "Other";    // Subject of keys without one
+
+    /**
+     * The parts of one session key.
+     */
+    public static final class Session {
+        private final String key;
+        private final LocalDate date;   // Null if the key does not start with a date
+        private final String timeSlot;
+        private final String subject;
+        private final int subjectId;    // Index into getSubjects()
+
+        private Session(String key, LocalDate date, String timeSlot, String subject, int subjectId) {
+            this.key = key;
+            this.date = date;
+            this.timeSlot = timeSlot;
+            this.subject = subject;
+            this.subjectId = subjectId;
+        }
+
+        public String getKey() { return key; }
+        public LocalDate getDate() { return date; }
+        public String getTimeSlot() { return timeSlot; }
+        public String getSubject() { return subject; }
+        public int getSubjectId() { return subjectId; }
+    }
+
+    private final String course;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<Session> sessions = new ArrayList<>();
+    private final Map<String, Integer> subjectIds = new HashMap<>();
+    private final List<String> subjects = new ArrayList<>();
+
+    private SessionDictionary(String course) {
+        this.course = course;
+    }
+
+    public static synchronized SessionDictionary forCourse(String course) {
+        return BY_COURSE.computeIfAbsent(course, SessionDictionary::new);
+    }
+
+    public String getCourse() {
+        return course;
+    }
+
+    /**
+     * Returns the ID for a key, assigning a new one if it is not known yet.
+     */
+    public synchronized int intern(String key) {
+        Integer id = ids.get(key);
+        if (id != null) return id;
+        int newId = sessions.size();
+        sessions.add(parse(key));
+        ids.put(key, newId);
+        return newId;
+    }
+
+    // "DATE#TIMESLOT#SUBJECT"; missing parts are left empty
+    private Session parse(String key) {
+        int first = key.indexOf('#');
+        int second = first < 0 ? -1 : key.indexOf('#', first + 1);
+        LocalDate date = null;
+        try {
+            date = LocalDate.parse(first < 0 ? key : key.substring(0, first));
+        } catch (DateTimeParseException e) {
+            // Not dated, still counted by subject
+        }
+        String timeSlot = first < 0 ? "" : key.substring(first + 1, second < 0 ? key.length() : second);
+        String subject = second < 0 || second + 1 == key.length() ? OTHER_SUBJECT : key.substring(second + 1);
+        Integer subjectId = subjectIds.get(subject);
+        if (subjectId == null) {
+            subjectId = subjects.size();
+            subjects.add(subject);
+            subjectIds.put(subject, subjectId);
+        }
+        return new Session(key, date, timeSlot, subject, subjectId);
+    }
+
+    /**
+     * Returns the ID for a key, or -1 if no student in the course has it.
+     */
+    public synchronized int idOf(String key) {
+        Integer id = ids.get(key);
+        return id == null ? -1 : id;
+    }
+
+    public synchronized String keyOf(int id) {
+        return sessions.get(id).key;
+    }
+
+    public synchronized Session sessionOf(int id) {
+        return sessions.get(id);
+    }
+
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Subjects seen in this course's keys, indexed by Session.getSubjectId().
+     */
+    public synchronized String[] getSubjects() {
+        return subjects.toArray(new String[0]);
+    }
+
+    /**
+     * Subject ID of every session ID known so far, for bulk counting.
+     */
+    public synchronized int[] getSubjectIdsBySession() {
+        int[] subjectIdsBySession = new int[sessions.size()];
+        for (int id = 0; id < subjectIdsBySession.length; id++) {
+            subjectIdsBySession[id] = sessions.get(id).subjectId;
+        }
+        return subjectIdsBySession;
+    }
+
+    /**
+     * Rough heap footprint of the dictionary itself (shared by the course).
+     */
+    public synchronized long estimateMemoryBytes() {
+        long bytes = 64 + sessions.size() * (4L + 32L + 16L); // List slot, map node, boxed ID
+        for (Session session : sessions) {
+            bytes += 40 + session.key.length();                 // Key
+            bytes += 32 + (session.date == null ? 0 : 24);      // Descriptor and date
+            bytes += 40 + session.timeSlot.length();            // Time slot (subjects are shared)
+        }
+        return bytes;
+    }
+}
@@ -1,108 +1,390 @@
 package AttendanceSystem;
 
-import java.util.HashSet;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 // Student class with session-wise attendance tracking
+// Sessions are stored as IDs from the course's shared SessionDictionary:
+// one bitset of recorded sessions, one of present sessions, one of self-marked sessions.
 public class Student extends Person {
     private String course;
-    private Map<String, Boolean> sessionAttendance; // "DAY-TIMESLOT-SUBJECT" -> isPresent
-    private Set<String> selfMarkedSessions; // Track sessions marked by student
-    
+    private SessionDictionary sessions;
+    private BitSet recordedSessions;    // Session has an attendance entry (present or absent)
+    private BitSet presentSessions;     // Subset of recorded: marked present
+    private BitSet selfMarkedSessions;  // Track sessions marked by student
+    private int presentCount;           // Cached presentSessions.cardinality()
+    private int totalCount;             // Cached recordedSessions.cardinality()
+    private AttendanceBreakdown breakdown;  // Built on demand, dropped whenever attendance changes
+    private AttendanceRollup rollup;        // Course totals this student is counted in (set by StudentStore)
+    private int rosterIndex;                // Position in its course roster (set by StudentStore)
+
+    // Run with -Dattendance.verifyAggregates=true to recount and check the cache on every read
+    private static final boolean VERIFY_AGGREGATES = Boolean.getBoolean("attendance.verifyAggregates");
+
     public Student(String name, String id, String course) {
         super(name, id);
         this.course = course;
-        this.sessionAttendance = new HashMap<>();
-        this.selfMarkedSessions = new HashSet<>();
+        this.sessions = SessionDictionary.forCourse(course);
+        this.recordedSessions = new BitSet();
+        this.presentSessions = new BitSet();
+        this.selfMarkedSessions = new BitSet();
     }
-    
+
     public void markAttendanceForSession(String sessionKey, boolean isPresent) {
-        sessionAttendance.put(sessionKey, isPresent);
+        int sessionId = sessions.intern(sessionKey);
+        int oldPresent = presentCount;
+        int oldTotal = totalCount;
+        if (!recordedSessions.get(sessionId)) {
+            recordedSessions.set(sessionId);
+            totalCount++;
+            breakdown = null;
+        }
+        if (presentSessions.get(sessionId) != isPresent) {
+            presentSessions.set(sessionId, isPresent);
+            presentCount += isPresent ? 1 : -1;
+            breakdown = null;
+        }
+        if (rollup != null && (presentCount != oldPresent || totalCount != oldTotal)) {
+            rollup.sessionChanged(sessionId, totalCount - oldTotal, presentCount - oldPresent);
+            rollup.studentChanged(this, oldPresent, oldTotal);
+        }
     }
-    
+
     public void markSelfAttendance(String sessionKey) {
         markAttendanceForSession(sessionKey, true);
-        selfMarkedSessions.add(sessionKey);
+        selfMarkedSessions.set(sessions.intern(sessionKey));
     }
-    
+
     public boolean isSelfMarked(String sessionKey) {
-        return selfMarkedSessions.contains(sessionKey);
+        int sessionId = sessions.idOf(sessionKey);
+        return sessionId >= 0 && selfMarkedSessions.get(sessionId);
     }
-    
+
     public boolean getAttendanceForSession(String sessionKey) {
-        return sessionAttendance.getOrDefault(sessionKey, false);
+        int sessionId = sessions.idOf(sessionKey);
+        return sessionId >= 0 && presentSessions.get(sessionId);
     }
-    
-    public int getTotalSessionsAttended() {
-        int count = 0;
-        for (boolean present : sessionAttendance.values()) {
-            if (present) count++;
+
+    /**
+     * Whether this student has an attendance entry (present or absent) for the session.
+     */
+    public boolean hasSession(String sessionKey) {
+        int sessionId = sessions.idOf(sessionKey);
+        return sessionId >= 0 && recordedSessions.get(sessionId);
+    }
+
+    /**
+     * Drops the attendance entry for a session. Returns true if one existed.
+     */
+    public boolean removeSession(String sessionKey) {
+        int sessionId = sessions.idOf(sessionKey);
+        if (sessionId < 0 || !recordedSessions.get(sessionId)) return false;
+        clearSession(sessionId);
+        return true;
+    }
+
+    /**
+     * Drops the attendance entries for a set of session IDs of this course.
+     * Returns true if any existed.
+     */
+    boolean removeSessions(BitSet sessionIds) {
+        boolean removed = false;
+        for (int id = sessionIds.nextSetBit(0); id >= 0; id = sessionIds.nextSetBit(id + 1)) {
+            if (recordedSessions.get(id)) {
+                clearSession(id);
+                removed = true;
+            }
         }
-        return count;
+        return removed;
     }
-    
+
+    private void clearSession(int sessionId) {
+        int oldPresent = presentCount;
+        recordedSessions.clear(sessionId);
+        totalCount--;
+        breakdown = null;
+        if (presentSessions.get(sessionId)) {
+            presentSessions.clear(sessionId);
+            presentCount--;
+        }
+        if (rollup != null) {
+            rollup.sessionChanged(sessionId, -1, presentCount - oldPresent);
+            rollup.studentChanged(this, oldPresent, totalCount + 1);
+        }
+    }
+
+    /**
+     * Records every session in the given set that this student does not
+     * have yet as absent. Returns how many sessions were added.
+     */
+    int recordAbsentIfMissing(BitSet sessionIds) {
+        BitSet missing = (BitSet) sessionIds.clone();
+        missing.andNot(recordedSessions);
+        if (missing.isEmpty()) return 0;
+        recordedSessions.or(missing);
+        int added = missing.cardinality();
+        totalCount += added;
+        breakdown = null;
+        if (rollup != null) {
+            rollup.sessionsRecorded(missing);
+            rollup.studentChanged(this, presentCount, totalCount - added);
+        }
+        return added;
+    }
+
+    // Internal view for bulk set operations; callers must not modify it
+    BitSet getRecordedSessionIds() {
+        return recordedSessions;
+    }
+
+    BitSet getPresentSessionIds() {
+        return presentSessions;
+    }
+
+    BitSet getSelfMarkedSessionIds() {
+        return selfMarkedSessions;
+    }
+
+    SessionDictionary getSessionDictionary() {
+        return sessions;
+    }
+
+    void setRollup(AttendanceRollup rollup) {
+        this.rollup = rollup;
+    }
+
+    int getRosterIndex() {
+        return rosterIndex;
+    }
+
+    void setRosterIndex(int rosterIndex) {
+        this.rosterIndex = rosterIndex;
+    }
+
+    /**
+     * Builds a student straight from session ID bitsets of its course
+     * dictionary, as read from a binary snapshot. Takes ownership of the bitsets.
+     */
+    static Student fromSessionIds(String name, String id, String course,
+                                  BitSet recorded, BitSet present, BitSet selfMarked) {
+        Student student = new Student(name, id, course);
+        student.recordedSessions = recorded;
+        student.presentSessions = present;
+        student.selfMarkedSessions = selfMarked;
+        student.presentCount = present.cardinality();
+        student.totalCount = recorded.cardinality();
+        return student;
+    }
+
+    /**
+     * Detached copy for serializing on another thread. Shares only the
+     * course dictionary, which is append-only and synchronized.
+     */
+    Student copy() {
+        Student copy = new Student(name, id, course);
+        copy.recordedSessions = (BitSet) recordedSessions.clone();
+        copy.presentSessions = (BitSet) presentSessions.clone();
+        copy.selfMarkedSessions = (BitSet) selfMarkedSessions.clone();
+        copy.presentCount = presentCount;
+        copy.totalCount = totalCount;
+        return copy;
+    }
+
+    public int getTotalSessionsAttended() {
+        if (VERIFY_AGGREGATES) verifyAggregates();
+        return presentCount;
+    }
+
     public int getTotalSessions() {
-        return sessionAttendance.size();
+        if (VERIFY_AGGREGATES) verifyAggregates();
+        return totalCount;
     }
-    
+
     public double getAttendancePercentage() {
-        if (sessionAttendance.isEmpty()) return 0.0;
+        if (totalCount == 0) return 0.0;
         return (getTotalSessionsAttended() * 100.0) / getTotalSessions();
     }
-    
+
+    /**
+     * Attendance per subject and per month. Cached until attendance changes.
+     */
+    public AttendanceBreakdown getAttendanceBreakdown() {
+        if (breakdown == null) {
+            breakdown = AttendanceBreakdown.of(sessions, recordedSessions, presentSessions);
+        }
+        return breakdown;
+    }
+
+    /**
+     * Recounts from the bitsets and throws if the cached counts have drifted.
+     */
+    public void verifyAggregates() {
+        int present = presentSessions.cardinality();
+        int total = recordedSessions.cardinality();
+        if (present != presentCount || total != totalCount) {
+            throw new IllegalStateException("Attendance counts out of sync for " + id
+                + ": cached " + presentCount + "/" + totalCount + ", actual " + present + "/" + total);
+        }
+    }
+
     public String getCourse() {
         return course;
     }
-    
+
     public String toFileString() {
         StringBuilder sb = new StringBuilder();
         sb.append(id).append("|").append(name).append("|").append(course).append("|");
-        sb.append(sessionAttendance.size()).append("|");
-        for (Map.Entry<String, Boolean> entry : sessionAttendance.entrySet()) {
-            sb.append(entry.getKey()).append("#").append(entry.getValue() ? "1" : "0").append(";");
+        sb.append(totalCount).append("|");
+        for (int i = recordedSessions.nextSetBit(0); i >= 0; i = recordedSessions.nextSetBit(i + 1)) {
+            sb.append(sessions.keyOf(i)).append("#").append(presentSessions.get(i) ? "1" : "0").append(";");
         }
         sb.append("|"); // Separator for self-marked
-        for (String key : selfMarkedSessions) {
-            sb.append(key).append(";");
+        for (int i = selfMarkedSessions.nextSetBit(0); i >= 0; i = selfMarkedSessions.nextSetBit(i + 1)) {
+            sb.append(sessions.keyOf(i)).append(";");
         }
         return sb.toString();
     }
-    
+
     public static Student fromFileString(String line) {
-        String[] parts = line.split("\\|");
-        Student student = new Student(parts[1], parts[0], parts[2]);
-        
-        // Parse Attendance
-        if (parts.length > 4 && !parts[4].isEmpty()) {
-            String[] sessions = parts[4].split(";");
-            for (String session : sessions) {
-                if (!session.isEmpty()) {
-                    int lastHash = session.lastIndexOf('#');
-                    if (lastHash != -1) {
-                        String key = session.substring(0, lastHash);
-                        String val = session.substring(lastHash + 1);
-                        student.sessionAttendance.put(key, val.equals("1"));
-                    }
+        LineCursor cursor = LineCursor.of(line);
+        String id = cursor.nextField('|');
+        String name = cursor.next('|') ? cursor.field() : null;
+        String course = cursor.next('|') ? cursor.field() : null;
+        // An empty course only counts if something non-empty follows, as with split()
+        if (course == null || (course.isEmpty() && cursor.countFields('|') < 3)) {
+            throw new IllegalArgumentException("Student record needs ID, name and course: " + line);
+        }
+        Student student = new Student(name, id, course);
+        cursor.next('|'); // Total, recounted from the sessions
+
+        // Parse Attendance (KEY#1;KEY#0;...)
+        if (cursor.next('|') && !cursor.fieldIsEmpty()) {
+            cursor.enterField();
+            for (int slot = 0; cursor.next(';'); slot++) {
+                if (cursor.fieldIsEmpty()) continue;
+                int lastHash = cursor.lastIndexInField('#');
+                if (lastHash != -1) {
+                    String key = cursor.text(cursor.fieldStart(), lastHash, slot);
+                    boolean present = cursor.fieldEnd() == lastHash + 2 && cursor.charAt(lastHash + 1) == '1';
+                    student.markAttendanceForSession(key, present);
                 }
             }
+            cursor.exitField();
         }
-        
+
         // Parse Self-Marked (Index 5)
-        if (parts.length > 5 && !parts[5].isEmpty()) {
-            String[] self = parts[5].split(";");
-            for (String s : self) {
-                if (!s.isEmpty()) {
-                    student.selfMarkedSessions.add(s);
+        if (cursor.next('|') && !cursor.fieldIsEmpty()) {
+            cursor.enterField();
+            for (int slot = 0; cursor.next(';'); slot++) {
+                if (!cursor.fieldIsEmpty()) {
+                    // Cache slots counted from the other end, away from the attendance keys
+                    String key = cursor.text(cursor.fieldStart(), cursor.fieldEnd(), -1 - slot);
+                    student.selfMarkedSessions.set(student.sessions.intern(key));
                 }
             }
+            cursor.exitField();
         }
-        
+
         return student;
     }
-    
+
+    /**
+     * Rough heap footprint of this record (64-bit JVM, compressed oops).
+     * Session keys live in the shared course dictionary and are not counted here.
+     */
+    public long estimateMemoryBytes() {
+        long bytes = 40; // Object header and fields
+        bytes += stringBytes(id) + stringBytes(name);
+        bytes += bitSetBytes(recordedSessions) + bitSetBytes(presentSessions) + bitSetBytes(selfMarkedSessions);
+        return bytes;
+    }
+
+    private static long stringBytes(String s) {
+        return s == null ? 0 : 40 + s.length();
+    }
+
+    private static long bitSetBytes(BitSet bits) {
+        return 24 + 16 + 8L * ((bits.size() + 63) / 64);
+    }
+
+    /**
+     * Live map view of session key -> present. Backed by the bitsets,
+     * so changes through the map are reflected in this student.
+     */
     public Map<String, Boolean> getSessionAttendance() {
-        return sessionAttendance;
+        return new AbstractMap<String, Boolean>() {
+            @Override
+            public Boolean get(Object key) {
+                if (!(key instanceof String) || !hasSession((String) key)) return null;
+                return getAttendanceForSession((String) key);
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return key instanceof String && hasSession((String) key);
+            }
+
+            @Override
+            public Boolean put(String key, Boolean value) {
+                Boolean previous = get(key);
+                markAttendanceForSession(key, value);
+                return previous;
+            }
+
+            @Override
+            public Boolean remove(Object key) {
+                Boolean previous = get(key);
+                if (previous != null) removeSession((String) key);
+                return previous;
+            }
+
+            @Override
+            public int size() {
+                return getTotalSessions();
+            }
+
+            @Override
+            public Set<Map.Entry<String, Boolean>> entrySet() {
+                return new AbstractSet<Map.Entry<String, Boolean>>() {
+                    @Override
+                    public int size() {
+                        return getTotalSessions();
+                    }
+
+                    @Override
+                    public Iterator<Map.Entry<String, Boolean>> iterator() {
+                        return new Iterator<Map.Entry<String, Boolean>>() {
+                            private int next = recordedSessions.nextSetBit(0);
+                            private int last = -1;
+
+                            @Override
+                            public boolean hasNext() {
+                                return next >= 0;
+                            }
+
+                            @Override
+                            public Map.Entry<String, Boolean> next() {
+                                if (next < 0) throw new NoSuchElementException();
+                                last = next;
+                                next = recordedSessions.nextSetBit(next + 1);
+                                return new AbstractMap.SimpleImmutableEntry<>(sessions.keyOf(last), presentSessions.get(last));
+                            }
+
+                            @Override
+                            public void remove() {
+                                if (last < 0) throw new IllegalStateException();
+                                clearSession(last);
+                                last = -1;
+                            }
+                        };
+                    }
+                };
+            }
+        };
     }
 }
@@ -0,0 +1,190 @@
+package AttendanceSystem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parses a student CSV (ID,NAME,COURSE with a header line) for bulk import.
+ * The file is streamed in batches. Each batch is parsed and validated in
+ * parallel, then checked for duplicate IDs in file order, so the first
+ * occurrence of an ID wins. Nothing touches the AttendanceSystem here; the
+ * caller commits the parsed rows in one step with addStudents.
+ */
+public class StudentCsvImport {
+    private static final int BATCH_SIZE = 2000;
+
+    // One valid data row
+    public static class Row {
+        private final int lineNumber;
+        private final String id;
+        private final String name;
+        private final String course;
+
+        Row(int lineNumber, String id, String name, String course) {
+            this.lineNumber = lineNumber;
+            this.id = id;
+            this.name = name;
+            this.course = course;
+        }
+
+        public int getLineNumber() { return lineNumber; }
+        public String getId() { return id; }
+        public String getName() { return name; }
+        public String getCourse() { return course; }
+
+        public Student toStudent() {
+            return new Student(name, id, course);
+        }
+    }
+
+    public static class Result {
+        private final List<Row> rows = new ArrayList<>();
+        private final StringBuilder errorLog = new StringBuilder();
+        private int duplicateCount;
+        private int errorCount;
+
+        public List<Row> getRows() { return rows; }
+        public String getErrorLog() { return errorLog.toString(); }
+        public int getDuplicateCount() { return duplicateCount; }
+        public int getErrorCount() { return errorCount; }
+    }
+
+    // Outcome of parsing one line: a row, an error message, or neither (blank line)
+    private static class Parsed {
+        final Row row;
+        final String error;
+
+        Parsed(Row row, String error) {
+            this.row = row;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Reads and validates the whole file. Progress is reported as a
+     * percentage (0-100) of the file read, from the calling thread.
+     */
+    public static Result parse(File file, IntConsumer progress) throws IOException {
+        Result result = new Result();
+        Set<String> seenIds = new HashSet<>();
+        long totalBytes = Math.max(1, file.length());
+        long bytesRead = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String header = reader.readLine(); // Skip header
+            if (header == null) return result;
+            bytesRead += header.length() + 1;
+            int lineNumber = 1;
+
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            String line;
+            while (true) {
+                line = reader.readLine();
+                if (line != null) {
+                    batch.add(line);
+                    bytesRead += line.length() + 1;
+                }
+                if (batch.size() == BATCH_SIZE || (line == null && !batch.isEmpty())) {
+                    processBatch(batch, lineNumber + 1, seenIds, result);
+                    lineNumber += batch.size();
+                    batch.clear();
+                    progress.accept((int) Math.min(100, bytesRead * 100 / totalBytes));
+                }
+                if (line == null) break;
+            }
+        }
+        progress.accept(100);
+        return result;
+    }
+
+    private static void processBatch(List<String> batch, int firstLineNumber, Set<String> seenIds, Result result) {
+        List<Parsed> parsed = IntStream.range(0, batch.size())
+            .parallel()
+            .mapToObj(i -> parseLine(batch.get(i), firstLineNumber + i))
+            .collect(Collectors.toList());
+
+        // Duplicates are resolved in file order
+        for (Parsed p : parsed) {
+            if (p.error != null) {
+                result.errorLog.append(p.error).append("\n");
+                result.errorCount++;
+            } else if (p.row != null) {
+                if (seenIds.add(p.row.getId())) {
+                    result.rows.add(p.row);
+                } else {
+                    result.errorLog.append("Line ").append(p.row.getLineNumber()).append(": Student ID ")
+                        .append(p.row.getId()).append(" appears more than once\n");
+                    result.duplicateCount++;
+                }
+            }
+        }
+    }
+
+    private static Parsed parseLine(String line, int lineNumber) {
+        if (line.trim().isEmpty()) return new Parsed(null, null);
+
+        List<String> parts = splitCsvLine(line);
+        if (parts == null) {
+            return new Parsed(null, "Line " + lineNumber + ": Unclosed quote");
+        }
+        if (parts.size() < 3) {
+            return new Parsed(null, "Line " + lineNumber + ": Invalid format (missing columns)");
+        }
+
+        String studentId = parts.get(0).trim();
+        String studentName = parts.get(1).trim();
+        String course = parts.get(2).trim();
+
+        if (studentId.isEmpty() || studentName.isEmpty() || course.isEmpty()) {
+            return new Parsed(null, "Line " + lineNumber + ": Empty field(s) detected");
+        }
+        if (studentId.indexOf('|') >= 0 || studentName.indexOf('|') >= 0 || course.indexOf('|') >= 0) {
+            return new Parsed(null, "Line " + lineNumber + ": '|' is not allowed in student fields");
+        }
+        return new Parsed(new Row(lineNumber, studentId, studentName, course), null);
+    }
+
+    /**
+     * Splits one CSV line. Fields may be wrapped in double quotes to contain
+     * commas, and "" inside a quoted field is a literal quote.
+     * Returns null if a quoted field is not closed.
+     */
+    public static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (inQuotes) return null;
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,43 @@
+package AttendanceSystem;
+
+/**
+ * One student as stored in the data file, turned into a Student only when
+ * needed. Reloads compare the hash with the previous load and keep the
+ * existing Student for records that did not change.
+ */
+abstract class StudentRecord {
+    abstract String getId();
+
+    abstract long getHash();
+
+    abstract Student toStudent();
+
+    static StudentRecord ofLine(String line) {
+        return new TextRecord(line);
+    }
+
+    // A line of attendance_data.txt
+    private static final class TextRecord extends StudentRecord {
+        private final String line;
+
+        TextRecord(String line) {
+            this.line = line;
+        }
+
+        @Override
+        String getId() {
+            int sep = line.indexOf('|');
+            return sep == -1 ? line : line.substring(0, sep);
+        }
+
+        @Override
+        long getHash() {
+            return ((long) line.hashCode() << 32) | line.length();
+        }
+
+        @Override
+        Student toStudent() {
+            return Student.fromFileString(line);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package AttendanceSystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Growable student store with no fixed capacity.
+ * Students keep their roster order. Removal leaves a hole, both in the
+ * store and in the course roster, that is reclaimed by an occasional
+ * compaction instead of searching and shifting the array on every delete. Lookup by ID and by course are O(1), and so are the
+ * attendance totals per course and overall (see AttendanceRollup).
+ */
+public class StudentStore implements Iterable<Student> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Student[] slots;
+    private int used;   // Slots handed out, including holes
+    private int live;   // Students actually stored
+    private Map<String, Integer> slotById;              // ID -> slot
+    private Map<String, Roster> courseIndex;            // Course -> Students (roster order)
+    private Map<String, AttendanceRollup> rollups;      // Course -> Totals of its students
+    private AttendanceRollup overallRollup;
+
+    public StudentStore() {
+        slots = new Student[INITIAL_CAPACITY];
+        slotById = new HashMap<>();
+        courseIndex = new HashMap<>();
+        rollups = new HashMap<>();
+        overallRollup = new AttendanceRollup(null, null);
+    }
+
+    public void add(Student student) {
+        if (used == slots.length) {
+            if (used - live > used / 4) {
+                compact(); // Enough holes to make room without growing
+            }
+            if (used == slots.length) {
+                Student[] grown = new Student[slots.length + (slots.length >> 1)];
+                System.arraycopy(slots, 0, grown, 0, used);
+                slots = grown;
+            }
+        }
+        // First record wins for duplicate IDs, matching the old linear scan
+        slotById.putIfAbsent(student.getId(), used);
+        slots[used++] = student;
+        live++;
+        courseIndex.computeIfAbsent(student.getCourse(), k -> new Roster()).add(student);
+        AttendanceRollup rollup = rollups.computeIfAbsent(student.getCourse(),
+            course -> new AttendanceRollup(SessionDictionary.forCourse(course), overallRollup));
+        rollup.add(student);
+        student.setRollup(rollup);
+    }
+
+    public Student find(String id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? null : slots[slot];
+    }
+
+    public Student remove(String id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) return null;
+
+        Student student = slots[slot];
+        slots[slot] = null;
+        live--;
+
+        Roster roster = courseIndex.get(student.getCourse());
+        roster.remove(student);
+        if (roster.live == 0) courseIndex.remove(student.getCourse());
+        rollups.get(student.getCourse()).remove(student);
+        if (roster.live == 0) rollups.remove(student.getCourse());
+        student.setRollup(null);
+
+        if (used - live > used / 2 && used > INITIAL_CAPACITY) {
+            compact();
+        }
+        return student;
+    }
+
+    /**
+     * Returns the students enrolled in a course, in roster order.
+     */
+    public List<Student> getStudentsInCourse(String course) {
+        Roster roster = courseIndex.get(course);
+        return roster == null ? Collections.emptyList() : roster.view();
+    }
+
+    /**
+     * Runs the callback whenever the overall totals change, i.e. on every
+     * add, remove and mark that changes a student's counts.
+     */
+    public void setOnTotalsChanged(Runnable callback) {
+        overallRollup.setOnChange(callback);
+    }
+
+    /**
+     * Running totals for the students of a course, or for every student if
+     * course is null. Unknown courses get empty totals.
+     */
+    public AttendanceRollup getRollup(String course) {
+        if (course == null) return overallRollup;
+        AttendanceRollup rollup = rollups.get(course);
+        return rollup == null ? new AttendanceRollup(null, null) : rollup;
+    }
+
+    /**
+     * Students below a percentage in one course, or in every course if
+     * course is null, lowest first. Only the matching range of the
+     * attendance index is visited, and it is read as the result is iterated.
+     */
+    public Iterable<Student> getStudentsBelow(double threshold, String course) {
+        List<AttendanceRollup> indexed = courseRollups(course);
+        return () -> AttendanceRollup.iterateBelow(indexed, threshold);
+    }
+
+    public int countStudentsBelow(double threshold, String course) {
+        return AttendanceRollup.countBelow(courseRollups(course), threshold);
+    }
+
+    private List<AttendanceRollup> courseRollups(String course) {
+        if (course == null) return new ArrayList<>(rollups.values());
+        AttendanceRollup rollup = rollups.get(course);
+        return rollup == null ? Collections.emptyList() : Collections.singletonList(rollup);
+    }
+
+    public Iterable<String> getCourses() {
+        return Collections.unmodifiableSet(courseIndex.keySet());
+    }
+
+    public int size() {
+        return live;
+    }
+
+    public Student[] toArray() {
+        Student[] result = new Student[live];
+        int n = 0;
+        for (int i = 0; i < used; i++) {
+            if (slots[i] != null) result[n++] = slots[i];
+        }
+        return result;
+    }
+
+    public void clear() {
+        for (Student s : this) {
+            s.setRollup(null);
+        }
+        slots = new Student[INITIAL_CAPACITY];
+        used = 0;
+        live = 0;
+        slotById.clear();
+        courseIndex.clear();
+        rollups.clear();
+        overallRollup = new AttendanceRollup(null, null);
+    }
+
+    /**
+     * Rough heap footprint per student (64-bit JVM, compressed oops),
+     * including the store's own slot and index overhead.
+     */
+    public long getEstimatedBytesPerStudent() {
+        if (live == 0) return 0;
+        long total = 16L + 4L * slots.length;       // Slot array
+        total += live * (32L + 16L);                // slotById node + boxed slot
+        total += live * 4L;                         // Course roster reference
+        total += live * (32L + 8L);                 // Attendance index bucket entry
+        for (int i = 0; i < used; i++) {
+            if (slots[i] != null) total += slots[i].estimateMemoryBytes();
+        }
+        for (String course : courseIndex.keySet()) {
+            total += SessionDictionary.forCourse(course).estimateMemoryBytes(); // Shared session keys
+        }
+        return total / live;
+    }
+
+    // Squeeze out holes left by removals and renumber the ID index
+    private void compact() {
+        int n = 0;
+        for (int i = 0; i < used; i++) {
+            Student s = slots[i];
+            if (s == null) continue;
+            slots[n] = s;
+            Integer mapped = slotById.get(s.getId());
+            if (mapped != null && mapped == i) {
+                slotById.put(s.getId(), n);
+            }
+            n++;
+        }
+        for (int i = n; i < used; i++) {
+            slots[i] = null;
+        }
+        used = n;
+    }
+
+    /**
+     * Students of one course. Each student knows its position, so removal
+     * just clears the entry; the holes are squeezed out before the roster
+     * is next handed out.
+     */
+    private static final class Roster {
+        private final List<Student> students = new ArrayList<>();
+        private int live;
+
+        void add(Student student) {
+            student.setRosterIndex(students.size());
+            students.add(student);
+            live++;
+        }
+
+        void remove(Student student) {
+            students.set(student.getRosterIndex(), null);
+            live--;
+        }
+
+        List<Student> view() {
+            if (live < students.size()) {
+                students.removeIf(Objects::isNull);
+                for (int i = 0; i < students.size(); i++) {
+                    students.get(i).setRosterIndex(i);
+                }
+            }
+            return Collections.unmodifiableList(students);
+        }
+    }
+
+    @Override
+    public Iterator<Student> iterator() {
+        return new Iterator<Student>() {
+            private int next = advance(0);
+
+            private int advance(int from) {
+                while (from < used && slots[from] == null) from++;
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < used;
+            }
+
+            @Override
+            public Student next() {
+                if (next >= used) throw new NoSuchElementException();
+                Student s = slots[next];
+                next = advance(next + 1);
+                return s;
+            }
+        };
+    }
+}
@@ -174,6 +174,11 @@ public class AssignmentPanel extends BasePanel {
         add(scroll, BorderLayout.CENTER);
     }
 
+    @Override
+    public boolean dependsOn(DataChange change) {
+        return change == DataChange.ASSIGNMENTS || change == DataChange.SUBMISSIONS;
+    }
+    
     @Override
     public void onShow() {
         refreshData();
@@ -0,0 +1,219 @@
+package AttendanceSystem.ui;
+
+import AttendanceSystem.Student;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Grid of student attendance boxes for one session, five per row.
+ * Boxes are painted by a single shared renderer instead of one panel per
+ * student, so only the visible cells are drawn, and refresh() repaints
+ * just the cells whose status changed.
+ */
+public class AttendanceGrid extends JTable {
+    private static final int COLUMNS = 5;
+    private static final int BOX_HEIGHT = 50;
+
+    private static final byte ABSENT = 0;
+    private static final byte PRESENT = 1;
+    private static final byte SELF_MARKED = 2;
+
+    private static final Color SELF_MARKED_BG = new Color(22, 163, 74);   // Dark Green (Self-Marked)
+    private static final Color PRESENT_BG = new Color(220, 252, 231);     // Light Green (Teacher Marked)
+    private static final Color ABSENT_BG = new Color(254, 226, 226);      // Red (Absent)
+
+    private final String sessionKey;
+    private final GridModel gridModel = new GridModel();
+    private Student[] students = new Student[0];
+    private byte[] states = new byte[0];   // Last painted status per student
+    private int presentCount;
+
+    /**
+     * @param onToggle called with the student whose box was clicked
+     */
+    public AttendanceGrid(String sessionKey, List<Student> roster, Consumer<Student> onToggle) {
+        this.sessionKey = sessionKey;
+        setModel(gridModel);
+        setTableHeader(null);
+        setShowGrid(false);
+        setIntercellSpacing(new Dimension(DesignSystem.SPACING_SM, DesignSystem.SPACING_SM));
+        setRowHeight(BOX_HEIGHT + DesignSystem.SPACING_SM);
+        setRowSelectionAllowed(false);
+        setFocusable(false);
+        setOpaque(false);
+        setDefaultRenderer(Object.class, new StudentBoxRenderer());
+        setCursor(new Cursor(Cursor.HAND_CURSOR));
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = rowAtPoint(e.getPoint());
+                int column = columnAtPoint(e.getPoint());
+                if (row < 0 || column < 0) return;
+                int index = row * COLUMNS + column;
+                if (index < students.length) {
+                    onToggle.accept(students[index]);
+                }
+            }
+        });
+
+        setRoster(roster);
+    }
+
+    /**
+     * Shows the given students. If they are the same objects as before only
+     * changed cells are repainted; otherwise the whole grid is rebuilt.
+     */
+    public void setRoster(List<Student> roster) {
+        boolean same = roster.size() == students.length;
+        for (int i = 0; same && i < students.length; i++) {
+            same = roster.get(i) == students[i];
+        }
+        if (same) {
+            refresh();
+            return;
+        }
+
+        students = roster.toArray(new Student[0]);
+        states = new byte[students.length];
+        presentCount = 0;
+        for (int i = 0; i < students.length; i++) {
+            states[i] = statusOf(students[i]);
+            if (states[i] != ABSENT) presentCount++;
+        }
+        gridModel.fireTableDataChanged();
+    }
+
+    /**
+     * Re-reads each student's status and repaints only the cells that changed.
+     */
+    public void refresh() {
+        for (int i = 0; i < students.length; i++) {
+            byte state = statusOf(students[i]);
+            if (state == states[i]) continue;
+
+            if (states[i] == ABSENT) presentCount++;
+            if (state == ABSENT) presentCount--;
+            states[i] = state;
+            gridModel.fireTableCellUpdated(i / COLUMNS, i % COLUMNS);
+        }
+    }
+
+    public List<Student> getStudents() {
+        return Arrays.asList(students);
+    }
+
+    public int getPresentCount() {
+        return presentCount;
+    }
+
+    public int getStudentCount() {
+        return students.length;
+    }
+
+    private byte statusOf(Student student) {
+        if (!student.getAttendanceForSession(sessionKey)) return ABSENT;
+        return student.isSelfMarked(sessionKey) ? SELF_MARKED : PRESENT;
+    }
+
+    private class GridModel extends AbstractTableModel {
+        @Override
+        public int getRowCount() {
+            return (students.length + COLUMNS - 1) / COLUMNS;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            int index = row * COLUMNS + column;
+            return index < students.length ? students[index] : null;
+        }
+
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    }
+
+    // One reusable box, repositioned and repainted for every visible cell
+    private class StudentBoxRenderer extends JPanel implements TableCellRenderer {
+        private final JLabel nameLabel = new JLabel();
+        private final JLabel idLabel = new JLabel();
+        private final JLabel statusLabel = new JLabel();
+        private final JLabel emptyCell = new JLabel();
+
+        StudentBoxRenderer() {
+            super(new BorderLayout(DesignSystem.SPACING_XS, 0));
+            setOpaque(false);
+            setBorder(BorderFactory.createEmptyBorder(
+                DesignSystem.SPACING_SM, DesignSystem.SPACING_SM,
+                DesignSystem.SPACING_SM, DesignSystem.SPACING_SM));
+
+            JPanel infoPanel = new JPanel();
+            infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
+            infoPanel.setOpaque(false);
+
+            nameLabel.setFont(DesignSystem.FONT_SMALL);
+            idLabel.setFont(new Font(DesignSystem.FONT_FAMILY, Font.PLAIN, 10));
+            statusLabel.setFont(new Font(DesignSystem.FONT_FAMILY, Font.BOLD, 18));
+
+            infoPanel.add(nameLabel);
+            infoPanel.add(idLabel);
+            add(infoPanel, BorderLayout.CENTER);
+            add(statusLabel, BorderLayout.EAST);
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            int index = row * COLUMNS + column;
+            if (value == null || index >= states.length) return emptyCell;
+
+            Student student = (Student) value;
+            byte state = states[index];
+
+            nameLabel.setText(truncateName(student.getName(), 20));
+            idLabel.setText(student.getId());
+            statusLabel.setText(state == ABSENT ? "✗" : "✓");
+
+            if (state == SELF_MARKED) {
+                // White text for dark background
+                setBackground(SELF_MARKED_BG);
+                nameLabel.setForeground(Color.WHITE);
+                idLabel.setForeground(new Color(255, 255, 255, 200));
+                statusLabel.setForeground(Color.WHITE);
+            } else {
+                setBackground(state == PRESENT ? PRESENT_BG : ABSENT_BG);
+                nameLabel.setForeground(DesignSystem.TEXT_PRIMARY);
+                idLabel.setForeground(DesignSystem.TEXT_MUTED);
+                statusLabel.setForeground(state == PRESENT ? DesignSystem.SUCCESS : DesignSystem.DANGER);
+            }
+            return this;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(getBackground());
+            g2.fillRoundRect(0, 0, getWidth(), getHeight(), DesignSystem.RADIUS_SM, DesignSystem.RADIUS_SM);
+            g2.dispose();
+        }
+
+        private String truncateName(String name, int maxLen) {
+            if (name.length() <= maxLen) return name;
+            return name.substring(0, maxLen - 2) + "..";
+        }
+    }
+}
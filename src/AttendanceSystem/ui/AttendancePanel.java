@@ -7,6 +7,9 @@ import java.awt.event.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 // Ensure DatePickerDialog is visible to this class
 import AttendanceSystem.ui.DatePickerDialog;
@@ -19,6 +22,10 @@ public class AttendancePanel extends BasePanel {
     private LocalDate currentDate;
     private final LocalDate START_DATE = LocalDate.of(2025, 12, 1);
     private JScrollPane contentScrollPane;
+    private JPanel gridPanel;
+    // Session cards of the current view, reused across refreshes so only changed cells repaint
+    private Map<String, JPanel> sessionCards = new HashMap<>();
+    private Map<String, AttendanceGrid> sessionGrids = new HashMap<>();
     private JLabel dateLabel;
     private JButton prevBtn;
     private JButton nextBtn;
@@ -126,7 +133,7 @@ public class AttendancePanel extends BasePanel {
             return;
         }
         
-        ArrayList<ClassSession> todaySessions = system.getSessionsByDay(dayStr, me.getCourse());
+        List<ClassSession> todaySessions = system.getSessionsByDay(dayStr, me.getCourse());
         
         if (todaySessions.isEmpty()) {
             listPanel.add(new JLabel("No classes scheduled for today."));
@@ -163,7 +170,7 @@ public class AttendancePanel extends BasePanel {
         
         // Status / Button
         String key = LocalDate.now().toString() + "#" + session.getTimeSlot() + "#" + session.getSubject();
-        boolean isPresent = me.getSessionAttendance().containsKey(key) && me.getSessionAttendance().get(key);
+        boolean isPresent = me.getAttendanceForSession(key);
         
         if (isPresent) {
             JLabel status = new JLabel("Present ✓");
@@ -382,14 +389,19 @@ public class AttendancePanel extends BasePanel {
         // Disable prev button if at start date
         prevBtn.setEnabled(!currentDate.equals(START_DATE));
         
-        JPanel gridPanel = new JPanel();
-        gridPanel.setLayout(new BoxLayout(gridPanel, BoxLayout.Y_AXIS));
-        gridPanel.setBackground(DesignSystem.BACKGROUND);
-        gridPanel.setBorder(BorderFactory.createEmptyBorder(DesignSystem.SPACING_SM, 0, DesignSystem.SPACING_SM, 0));
+        if (gridPanel == null) {
+            gridPanel = new JPanel();
+            gridPanel.setLayout(new BoxLayout(gridPanel, BoxLayout.Y_AXIS));
+            gridPanel.setBackground(DesignSystem.BACKGROUND);
+            gridPanel.setBorder(BorderFactory.createEmptyBorder(DesignSystem.SPACING_SM, 0, DesignSystem.SPACING_SM, 0));
+            contentScrollPane.setViewportView(gridPanel);
+        }
+        gridPanel.removeAll();
+        Map<String, JPanel> previousCards = sessionCards;
+        sessionCards = new HashMap<>();
         
         String dayOfWeek = getDayString(currentDate);
-        ArrayList<ClassSession> sessions = system.getSessionsByDay(dayOfWeek);
-        Student[] allStudents = system.getAllStudents();
+        List<ClassSession> sessions = system.getSessionsByDay(dayOfWeek);
         
         // Remove the global filter logic here since we filter per session now
         // But we might want to respect the filter if the user *explicitly* chose a course to view.
@@ -407,12 +419,7 @@ public class AttendancePanel extends BasePanel {
             }
             
             // FILTER STUDENTS BY SESSION COURSE
-            java.util.List<Student> sessionStudents = new ArrayList<>();
-            for (Student s : allStudents) {
-                if (s.getCourse().equals(session.getCourse())) {
-                    sessionStudents.add(s);
-                }
-            }
+            java.util.List<Student> sessionStudents = system.getStudentsInCourse(session.getCourse());
             
             // If global filter is active, further filter (optional, but good UX)
             String currentFilter = "All Courses";
@@ -429,7 +436,14 @@ public class AttendancePanel extends BasePanel {
             // Better to show them so teacher knows they exist but have no students (rare case)
             
             hasContent = true;
-            JPanel sessionCard = createSessionCard(session, sessionStudents.toArray(new Student[0]));
+            String cardKey = generateSessionKey(session) + "|" + session.getCourse();
+            JPanel sessionCard = previousCards.get(cardKey);
+            if (sessionCard == null) {
+                sessionCard = createSessionCard(cardKey, session, sessionStudents);
+            } else {
+                sessionGrids.get(cardKey).setRoster(sessionStudents);
+            }
+            sessionCards.put(cardKey, sessionCard);
             gridPanel.add(sessionCard);
             gridPanel.add(Box.createVerticalStrut(DesignSystem.SPACING_MD));
         }
@@ -445,12 +459,12 @@ public class AttendancePanel extends BasePanel {
             gridPanel.add(emptyPanel);
         }
         
-        contentScrollPane.setViewportView(gridPanel);
+        sessionGrids.keySet().retainAll(sessionCards.keySet());
         revalidate();
         repaint();
     }
     
-    private JPanel createSessionCard(ClassSession session, Student[] students) {
+    private JPanel createSessionCard(String cardKey, ClassSession session, List<Student> students) {
         JPanel card = new JPanel(new BorderLayout(0, DesignSystem.SPACING_MD)) {
             @Override
             protected void paintComponent(Graphics g) {
@@ -491,67 +505,48 @@ public class AttendancePanel extends BasePanel {
         // UNIQUE KEY GENERATION INCLUDING DATE
         String sessionKey = generateSessionKey(session);
         
-        int presentCount = 0;
-        for (Student s : students) {
-            if (s.getSessionAttendance().containsKey(sessionKey) && s.getAttendanceForSession(sessionKey)) {
-                presentCount++;
-            }
-        }
-        
         // Student boxes grid - declared before button to be accessible
-        JPanel studentGrid = new JPanel(new GridLayout(0, 5, DesignSystem.SPACING_SM, DesignSystem.SPACING_SM));
-        studentGrid.setOpaque(false);
-        
-        for (Student student : students) {
-            studentGrid.add(createStudentBox(student, session, sessionKey));
-        }
+        AttendanceGrid studentGrid = new AttendanceGrid(sessionKey, students, student -> {
+            boolean newStatus = !student.getAttendanceForSession(sessionKey);
+            system.markAttendanceForSession(student.getId(), sessionKey, newStatus);
+            refreshGrid(cardKey);
+            notifyDataChanged();
+        });
+        sessionGrids.put(cardKey, studentGrid);
 
         // Stats Panel
         JPanel statsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, DesignSystem.SPACING_MD, 0));
         statsPanel.setOpaque(false);
         
-        JLabel presentLabel = new JLabel("✓ " + presentCount);
+        JLabel presentLabel = new JLabel();
         presentLabel.setFont(DesignSystem.FONT_BODY_BOLD);
         presentLabel.setForeground(DesignSystem.SUCCESS);
         
-        JLabel absentLabel = new JLabel("✗ " + (students.length - presentCount));
+        JLabel absentLabel = new JLabel();
         absentLabel.setFont(DesignSystem.FONT_BODY_BOLD);
         absentLabel.setForeground(DesignSystem.DANGER);
         
+        // Keep the counts in step with whatever the grid repaints
+        Runnable updateStats = () -> {
+            presentLabel.setText("✓ " + studentGrid.getPresentCount());
+            absentLabel.setText("✗ " + (studentGrid.getStudentCount() - studentGrid.getPresentCount()));
+        };
+        updateStats.run();
+        studentGrid.getModel().addTableModelListener(e -> updateStats.run());
+        
         JButton markAllBtn = new JButton("Mark All Present");
         markAllBtn.setFont(DesignSystem.FONT_SMALL);
         markAllBtn.setForeground(DesignSystem.PRIMARY);
         markAllBtn.setBackground(DesignSystem.SURFACE);
         markAllBtn.setCursor(new Cursor(Cursor.HAND_CURSOR));
         markAllBtn.addActionListener(e -> {
-            for (Student s : students) {
-                system.markAttendanceForSession(s.getId(), sessionKey, true);
+            java.util.List<String> ids = new ArrayList<>();
+            for (Student s : studentGrid.getStudents()) {
+                ids.add(s.getId());
             }
+            system.markAttendanceForSession(ids, sessionKey, true);
+            studentGrid.refresh();
             notifyDataChanged();
-            
-            // Optimistic UI Update for all boxes
-            for (Component comp : studentGrid.getComponents()) {
-                if (comp instanceof JPanel) {
-                    JPanel box = (JPanel) comp;
-                    box.setBackground(new Color(220, 252, 231)); // Success color
-                    
-                    // Find the status label (last component added to box)
-                    Component[] boxComps = box.getComponents();
-                    if (boxComps.length > 0) {
-                        Component lastComp = boxComps[boxComps.length - 1];
-                        if (lastComp instanceof JLabel) {
-                            JLabel status = (JLabel) lastComp;
-                            status.setText("✓");
-                            status.setForeground(DesignSystem.SUCCESS);
-                        }
-                    }
-                    box.repaint();
-                }
-            }
-            
-            // Update stats labels
-            presentLabel.setText("✓ " + students.length);
-            absentLabel.setText("✗ 0");
         });
         
         statsPanel.add(markAllBtn);
@@ -566,129 +561,17 @@ public class AttendancePanel extends BasePanel {
         return card;
     }
     
+    private void refreshGrid(String cardKey) {
+        AttendanceGrid grid = sessionGrids.get(cardKey);
+        if (grid != null) grid.refresh();
+    }
+    
     private String generateSessionKey(ClassSession session) {
         // Key format: YYYY-MM-DD#TIMESLOT#SUBJECT
         // We use # to be safe with colon in time, matching Student.java changes
         return currentDate.toString() + "#" + session.getTimeSlot() + "#" + session.getSubject();
     }
     
-    private JPanel createStudentBox(Student student, ClassSession session, String sessionKey) {
-        boolean isPresent = student.getSessionAttendance().containsKey(sessionKey) 
-            && student.getAttendanceForSession(sessionKey);
-        
-        // Determine Color
-        Color bgColor;
-        if (isPresent) {
-            if (student.isSelfMarked(sessionKey)) {
-                bgColor = new Color(22, 163, 74); // Dark Green (Self-Marked)
-            } else {
-                bgColor = new Color(220, 252, 231); // Light Green (Teacher Marked)
-            }
-        } else {
-            bgColor = new Color(254, 226, 226); // Red (Absent)
-        }
-        
-        JPanel box = new JPanel(new BorderLayout(DesignSystem.SPACING_XS, 0)) {
-            @Override
-            protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setColor(getBackground());
-                g2.fillRoundRect(0, 0, getWidth(), getHeight(), DesignSystem.RADIUS_SM, DesignSystem.RADIUS_SM);
-                g2.dispose();
-            }
-        };
-        box.setOpaque(false);
-        box.setBackground(bgColor);
-        box.setBorder(BorderFactory.createEmptyBorder(
-            DesignSystem.SPACING_SM, DesignSystem.SPACING_SM, 
-            DesignSystem.SPACING_SM, DesignSystem.SPACING_SM));
-        box.setCursor(new Cursor(Cursor.HAND_CURSOR));
-        box.setPreferredSize(new Dimension(150, 50));
-        
-        JPanel infoPanel = new JPanel();
-        infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
-        infoPanel.setOpaque(false);
-        
-        JLabel nameLabel = new JLabel(truncateName(student.getName(), 20));
-        nameLabel.setFont(DesignSystem.FONT_SMALL);
-        // White text for dark background, Black otherwise
-        if (isPresent && student.isSelfMarked(sessionKey)) {
-            nameLabel.setForeground(Color.WHITE);
-        } else {
-            nameLabel.setForeground(DesignSystem.TEXT_PRIMARY);
-        }
-        
-        JLabel idLabel = new JLabel(student.getId());
-        idLabel.setFont(new Font(DesignSystem.FONT_FAMILY, Font.PLAIN, 10));
-        if (isPresent && student.isSelfMarked(sessionKey)) {
-            idLabel.setForeground(new Color(255, 255, 255, 200));
-        } else {
-            idLabel.setForeground(DesignSystem.TEXT_MUTED);
-        }
-        
-        infoPanel.add(nameLabel);
-        infoPanel.add(idLabel);
-        box.add(infoPanel, BorderLayout.CENTER);
-        
-        JLabel statusLabel = new JLabel(isPresent ? "✓" : "✗");
-        statusLabel.setFont(new Font(DesignSystem.FONT_FAMILY, Font.BOLD, 18));
-        if (isPresent && student.isSelfMarked(sessionKey)) {
-            statusLabel.setForeground(Color.WHITE);
-        } else {
-            statusLabel.setForeground(isPresent ? DesignSystem.SUCCESS : DesignSystem.DANGER);
-        }
-        box.add(statusLabel, BorderLayout.EAST);
-        
-        box.addMouseListener(new MouseAdapter() {
-            @Override
-            public void mouseClicked(MouseEvent e) {
-                // ... logic remains, visual update needs similar check ...
-                boolean currentStatus = student.getSessionAttendance().containsKey(sessionKey) 
-                    && student.getAttendanceForSession(sessionKey);
-                boolean newStatus = !currentStatus;
-                
-                system.markAttendanceForSession(student.getId(), sessionKey, newStatus);
-                
-                // For optimistic update, we revert to standard colors 
-                // unless we track self-marked state in memory (which we do via Student obj)
-                Color newBg;
-                if (newStatus) {
-                     if (student.isSelfMarked(sessionKey)) newBg = new Color(22, 163, 74);
-                     else newBg = new Color(220, 252, 231);
-                } else {
-                    newBg = new Color(254, 226, 226);
-                }
-                
-                box.setBackground(newBg);
-                statusLabel.setText(newStatus ? "✓" : "✗");
-                
-                // Update Text Color
-                if (newStatus && student.isSelfMarked(sessionKey)) {
-                    nameLabel.setForeground(Color.WHITE);
-                    idLabel.setForeground(new Color(255, 255, 255, 200));
-                    statusLabel.setForeground(Color.WHITE);
-                } else {
-                    nameLabel.setForeground(DesignSystem.TEXT_PRIMARY);
-                    idLabel.setForeground(DesignSystem.TEXT_MUTED);
-                    statusLabel.setForeground(newStatus ? DesignSystem.SUCCESS : DesignSystem.DANGER);
-                }
-                
-                box.repaint();
-                notifyDataChanged();
-            }
-            
-            // ... hover logic ...
-        });
-        
-        return box;
-    }
-    
-    private String truncateName(String name, int maxLen) {
-        if (name.length() <= maxLen) return name;
-        return name.substring(0, maxLen - 2) + "..";
-    }
-    
     private String getDayString(LocalDate date) {
         switch (date.getDayOfWeek()) {
             case MONDAY: return "MON";
@@ -702,6 +585,11 @@ public class AttendancePanel extends BasePanel {
         }
     }
     
+    @Override
+    public boolean dependsOn(DataChange change) {
+        return change == DataChange.STUDENTS || change == DataChange.TIMETABLES;
+    }
+    
     @Override
     public void onShow() {
         if ("STUDENT".equals(currentUser.getRole())) {
@@ -3,6 +3,7 @@ package AttendanceSystem.ui;
 import AttendanceSystem.*;
 import javax.swing.*;
 import java.awt.*;
+import java.util.Set;
 
 /**
  * Base class for all feature panels.
@@ -18,6 +19,23 @@ public abstract class BasePanel extends JPanel {
         this.currentUser = currentUser;
         setLayout(new BorderLayout(10, 10));
         setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+        // Refresh when another user changes data shown by this panel
+        system.addChangeListener(this::onDataReloaded);
+    }
+    
+    /**
+     * Called when shared data changed on disk. Visible panels that
+     * depend on any of the changed data are refreshed.
+     */
+    protected void onDataReloaded(Set<DataChange> changes) {
+        if (!isVisible()) return;
+        for (DataChange change : changes) {
+            if (dependsOn(change)) {
+                onShow();
+                return;
+            }
+        }
     }
     
     /**
@@ -43,6 +61,14 @@ public abstract class BasePanel extends JPanel {
         // Override in subclasses if needed
     }
     
+    /**
+     * Whether this panel displays data of the given kind.
+     * Background reloads only refresh panels that depend on what changed.
+     */
+    public boolean dependsOn(DataChange change) {
+        return true;
+    }
+    
     /**
      * Called when this panel is hidden
      */
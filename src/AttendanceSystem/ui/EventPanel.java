@@ -5,12 +5,14 @@ import AttendanceSystem.Event;
 import AttendanceSystem.EventPhoto;
 import AttendanceSystem.User;
 import AttendanceSystem.ClassSession;
+import AttendanceSystem.DataChange;
 import javax.swing.*;
 import javax.swing.border.LineBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import javax.imageio.ImageIO;
 
@@ -123,6 +125,11 @@ public class EventPanel extends BasePanel {
         add(splitPane, BorderLayout.CENTER);
     }
 
+    @Override
+    public boolean dependsOn(DataChange change) {
+        return change == DataChange.EVENTS || change == DataChange.PHOTOS;
+    }
+    
     @Override
     public void onShow() {
         refreshData();
@@ -292,6 +299,7 @@ public class EventPanel extends BasePanel {
         if (confirm == JOptionPane.YES_OPTION) {
             String eventId = (String) eventModel.getValueAt(row, 0);
             system.deleteEvent(eventId);
+            notifyDataChanged();
             refreshData();
             photoGridPanel.removeAll(); // Clear detail view
             photoGridPanel.revalidate();
@@ -326,14 +334,15 @@ public class EventPanel extends BasePanel {
             
             if (event != null && event.getAffectedSessions() != null && !event.getAffectedSessions().isEmpty()) {
                 String[] sessions = event.getAffectedSessions().split(",");
+                List<String> fullKeys = new ArrayList<>();
                 for (String sKey : sessions) {
                     // Key format: TIME#SUBJECT
                     // Full key for attendance: DATE#TIME#SUBJECT
-                    String fullKey = event.getDate() + "#" + sKey;
-                    
-                    // Mark attendance using the synchronized method
-                    system.markEventAttendance(p.getStudentId(), fullKey, true);
+                    fullKeys.add(event.getDate() + "#" + sKey);
                 }
+                // One call for all sessions, so they are saved together
+                system.markEventAttendance(p.getStudentId(), fullKeys, true);
+                notifyDataChanged();
                 JOptionPane.showMessageDialog(this, "Attendance marked for " + sessions.length + " sessions!");
             }
         }
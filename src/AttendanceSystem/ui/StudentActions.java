@@ -8,6 +8,8 @@ import java.io.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Handles student-related actions like search, remove, import, and reports.
@@ -18,6 +20,9 @@ public class StudentActions {
     private final User currentUser;
     private final Component parentComponent;
     private Runnable onDataChanged;
+    private Supplier<String> courseFilter;
+    
+    private static final int LOW_ATTENDANCE_PAGE_SIZE = 100;
     
     public StudentActions(AttendanceSystem system, User currentUser, Component parentComponent) {
         this.system = system;
@@ -29,6 +34,13 @@ public class StudentActions {
         this.onDataChanged = callback;
     }
     
+    /**
+     * Course selected in the main window, used to narrow the low attendance report.
+     */
+    public void setCourseFilter(Supplier<String> courseFilter) {
+        this.courseFilter = courseFilter;
+    }
+    
     private void notifyDataChanged() {
         if (onDataChanged != null) {
             onDataChanged.run();
@@ -66,7 +78,13 @@ public class StudentActions {
         info.append(String.format("Attendance: %.2f%%\n\n", student.getAttendancePercentage()));
         
         if (student.getTotalSessions() > 0) {
-            info.append("Session-wise Attendance:\n");
+            AttendanceBreakdown breakdown = student.getAttendanceBreakdown();
+            info.append("Subject-wise Attendance:\n");
+            appendBreakdownRows(info, breakdown.getBySubject());
+            info.append("\nMonth-wise Attendance:\n");
+            appendBreakdownRows(info, breakdown.getByMonth());
+            
+            info.append("\nSession-wise Attendance:\n");
             Map<String, Boolean> sessionAttendance = student.getSessionAttendance();
             for (Map.Entry<String, Boolean> entry : sessionAttendance.entrySet()) {
                 String status = entry.getValue() ? "Present" : "Absent";
@@ -78,6 +96,13 @@ public class StudentActions {
         JOptionPane.showMessageDialog(parentComponent, scrollPane, "Student Details", JOptionPane.INFORMATION_MESSAGE);
     }
     
+    private void appendBreakdownRows(StringBuilder info, java.util.List<AttendanceBreakdown.Row> rows) {
+        for (AttendanceBreakdown.Row row : rows) {
+            info.append(String.format("  %s: %d/%d (%.2f%%)\n", 
+                row.getLabel(), row.getAttended(), row.getTotal(), row.getPercentage()));
+        }
+    }
+    
     /**
      * Remove a student (Admin only)
      */
@@ -150,94 +175,89 @@ public class StudentActions {
         }
         
         File selectedFile = fileChooser.getSelectedFile();
-        int successCount = 0;
-        int skipCount = 0;
-        int errorCount = 0;
-        StringBuilder errorLog = new StringBuilder();
+        ProgressMonitor monitor = new ProgressMonitor(parentComponent, "Importing students from " + selectedFile.getName(), null, 0, 100);
+        monitor.setMillisToDecideToPopup(200);
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(selectedFile))) {
-            String line;
-            boolean isFirstLine = true;
-            int lineNumber = 0;
+        // Parse off the EDT; the students are committed on the EDT with a single write
+        SwingWorker<StudentCsvImport.Result, Void> worker = new SwingWorker<StudentCsvImport.Result, Void>() {
+            @Override
+            protected StudentCsvImport.Result doInBackground() throws Exception {
+                return StudentCsvImport.parse(selectedFile, this::setProgress);
+            }
             
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-                
-                if (line.trim().isEmpty()) {
-                    continue;
-                }
-                
+            @Override
+            protected void done() {
+                monitor.close();
                 try {
-                    String[] parts = line.split(",");
-                    
-                    if (parts.length < 3) {
-                        errorLog.append("Line ").append(lineNumber).append(": Invalid format (missing columns)\n");
-                        errorCount++;
-                        continue;
-                    }
-                    
-                    String studentId = parts[0].trim();
-                    String studentName = parts[1].trim();
-                    String course = parts[2].trim();
-                    
-                    if (studentId.isEmpty() || studentName.isEmpty() || course.isEmpty()) {
-                        errorLog.append("Line ").append(lineNumber).append(": Empty field(s) detected\n");
-                        errorCount++;
-                        continue;
-                    }
-                    
-                    if (system.findStudent(studentId) != null) {
-                        errorLog.append("Line ").append(lineNumber).append(": Student ID ").append(studentId).append(" already exists\n");
-                        skipCount++;
-                        continue;
-                    }
-                    
-                    system.addStudent(studentName, studentId, course);
-                    successCount++;
-                    
+                    showImportSummary(get());
                 } catch (Exception e) {
-                    errorLog.append("Line ").append(lineNumber).append(": ").append(e.getMessage()).append("\n");
-                    errorCount++;
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(parentComponent, 
+                        "Error reading CSV file:\n" + cause.getMessage(), 
+                        "Import Error", JOptionPane.ERROR_MESSAGE);
                 }
             }
-            
-            StringBuilder summary = new StringBuilder();
-            summary.append("CSV Import Complete!\n\n");
-            summary.append("Successfully imported: ").append(successCount).append(" students\n");
-            summary.append("Skipped (duplicates): ").append(skipCount).append(" students\n");
-            summary.append("Errors: ").append(errorCount).append(" lines\n");
-            
-            if (errorLog.length() > 0) {
-                summary.append("\n--- Error Details ---\n");
-                summary.append(errorLog.toString());
+        };
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                monitor.setProgress((Integer) evt.getNewValue());
             }
-            
-            JScrollPane scrollPane = UIUtils.createScrollableTextArea(summary.toString(), 500, 400);
-            JOptionPane.showMessageDialog(parentComponent, scrollPane, "Import Summary", 
-                errorCount > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
-            
-            notifyDataChanged();
-            
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(parentComponent, 
-                "Error reading CSV file:\n" + e.getMessage(), 
-                "Import Error", JOptionPane.ERROR_MESSAGE);
+        });
+        worker.execute();
+    }
+    
+    private void showImportSummary(StudentCsvImport.Result result) {
+        StringBuilder errorLog = new StringBuilder(result.getErrorLog());
+        int skipCount = result.getDuplicateCount();
+        int errorCount = result.getErrorCount();
+        
+        java.util.List<Student> newStudents = new ArrayList<>();
+        for (StudentCsvImport.Row row : result.getRows()) {
+            if (system.findStudent(row.getId()) != null) {
+                errorLog.append("Line ").append(row.getLineNumber()).append(": Student ID ").append(row.getId()).append(" already exists\n");
+                skipCount++;
+            } else {
+                newStudents.add(row.toStudent());
+            }
+        }
+        int successCount = system.addStudents(newStudents);
+        
+        StringBuilder summary = new StringBuilder();
+        summary.append("CSV Import Complete!\n\n");
+        summary.append("Successfully imported: ").append(successCount).append(" students\n");
+        summary.append("Skipped (duplicates): ").append(skipCount).append(" students\n");
+        summary.append("Errors: ").append(errorCount).append(" lines\n");
+        
+        if (errorLog.length() > 0) {
+            summary.append("\n--- Error Details ---\n");
+            summary.append(errorLog.toString());
         }
+        
+        JScrollPane scrollPane = UIUtils.createScrollableTextArea(summary.toString(), 500, 400);
+        JOptionPane.showMessageDialog(parentComponent, scrollPane, "Import Summary", 
+            errorCount > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+        
+        notifyDataChanged();
     }
     
     /**
      * Generate attendance report
      */
     public void generateReport() {
-        system.generateReport();
+        String[] options = {"Text", "CSV", "JSON"};
+        int choice = JOptionPane.showOptionDialog(parentComponent, 
+            "Choose a report format:", "Generate Report", JOptionPane.DEFAULT_OPTION, 
+            JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        if (choice < 0) {
+            return;
+        }
+        
+        AttendanceReport.Format format = AttendanceReport.Format.values()[choice];
+        String fileName = "attendance_report." + format.getExtension();
+        system.generateReport(fileName, format);
         JOptionPane.showMessageDialog(parentComponent, 
-            "Report generated successfully!\nSaved to: attendance_report.txt\n\n" +
-            "Includes:\n- Overall summary\n- Individual student details\n- Session-wise attendance", 
+            "Report generated successfully!\nSaved to: " + fileName + "\n\n" +
+            "Includes:\n- Overall summary\n- Course and subject-wise attendance\n- Individual student details", 
             "Success", JOptionPane.INFORMATION_MESSAGE);
     }
     
@@ -254,41 +274,54 @@ public class StudentActions {
         
         try {
             double threshold = Double.parseDouble(input);
-            Student[] students = system.getAllStudents();
-            StringBuilder result = new StringBuilder("Students with attendance below " + threshold + "%:\n\n");
-            final ArrayList<Student> lowAttendanceStudents = new ArrayList<>();
-            
-            for (Student s : students) {
-                if (s.getAttendancePercentage() < threshold) {
-                    result.append(String.format("%s - %s\n  Course: %s\n  Attendance: %.2f%% (%d/%d sessions)\n\n", 
-                        s.getId(), s.getName(), s.getCourse(), s.getAttendancePercentage(), 
-                        s.getTotalSessionsAttended(), s.getTotalSessions()));
-                    lowAttendanceStudents.add(s);
-                }
-            }
+            String course = courseFilter != null ? courseFilter.get() : "All Courses";
+            LowAttendancePager pager = new LowAttendancePager(threshold, course);
+            String firstPage = pager.firstPage();
             
-            if (lowAttendanceStudents.isEmpty()) {
-                result.append("No students found with low attendance.");
-                JOptionPane.showMessageDialog(parentComponent, result.toString(), 
+            if (pager.found == 0) {
+                JOptionPane.showMessageDialog(parentComponent, firstPage, 
                     "Low Attendance Report", JOptionPane.INFORMATION_MESSAGE);
                 return;
             }
             
             JPanel dialogPanel = new JPanel(new BorderLayout(10, 10));
-            dialogPanel.add(UIUtils.createScrollableTextArea(result.toString(), 500, 350), BorderLayout.CENTER);
+            JScrollPane scrollPane = UIUtils.createScrollableTextArea(firstPage, 500, 350);
+            JTextArea textArea = (JTextArea) scrollPane.getViewport().getView();
+            dialogPanel.add(scrollPane, BorderLayout.CENTER);
+            
+            JButton moreButton = UIUtils.createStyledButton("Show More", UIUtils.PRIMARY_BLUE);
+            moreButton.setPreferredSize(new Dimension(150, 35));
+            moreButton.setEnabled(pager.hasMore());
             
             JButton exportButton = UIUtils.createStyledButton("Export to CSV", UIUtils.SUCCESS_GREEN);
             exportButton.setPreferredSize(new Dimension(150, 35));
             
             JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+            buttonPanel.add(moreButton);
             buttonPanel.add(exportButton);
             dialogPanel.add(buttonPanel, BorderLayout.SOUTH);
             
-            final double finalThreshold = threshold;
-            exportButton.addActionListener(e -> exportLowAttendanceToCSV(lowAttendanceStudents, finalThreshold));
+            moreButton.addActionListener(e -> {
+                textArea.append(pager.nextPage());
+                moreButton.setEnabled(pager.hasMore());
+            });
+            exportButton.addActionListener(e -> exportLowAttendanceToCSV(threshold, course));
             
-            JOptionPane.showMessageDialog(parentComponent, dialogPanel, 
-                "Low Attendance Report", JOptionPane.INFORMATION_MESSAGE);
+            // Start over from the first page when another user's changes reload the students
+            Consumer<Set<DataChange>> onReload = changes -> {
+                if (changes.contains(DataChange.STUDENTS)) {
+                    textArea.setText(pager.firstPage());
+                    textArea.setCaretPosition(0);
+                    moreButton.setEnabled(pager.hasMore());
+                }
+            };
+            system.addChangeListener(onReload);
+            try {
+                JOptionPane.showMessageDialog(parentComponent, dialogPanel, 
+                    "Low Attendance Report", JOptionPane.INFORMATION_MESSAGE);
+            } finally {
+                system.removeChangeListener(onReload);
+            }
             
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(parentComponent, 
@@ -296,7 +329,64 @@ public class StudentActions {
         }
     }
     
-    private void exportLowAttendanceToCSV(ArrayList<Student> students, double threshold) {
+    /**
+     * Lowest attendance first, one page at a time. The iterator reads the
+     * store it was taken from, so it is taken again after every reload.
+     */
+    private final class LowAttendancePager {
+        private final double threshold;
+        private final String course;
+        private Iterator<Student> students = Collections.emptyIterator();
+        private int found;
+        
+        LowAttendancePager(double threshold, String course) {
+            this.threshold = threshold;
+            this.course = course;
+        }
+        
+        // Summary line and the first page, from the current students
+        String firstPage() {
+            found = system.countStudentsBelow(threshold, course);
+            StringBuilder result = new StringBuilder("Students with attendance below " + threshold + "%");
+            if (course != null && !course.equals("All Courses")) {
+                result.append(" in ").append(course);
+            }
+            result.append(": ").append(found).append("\n\n");
+            
+            if (found == 0) {
+                students = Collections.emptyIterator();
+                result.append("No students found with low attendance.");
+                return result.toString();
+            }
+            students = system.getStudentsBelow(threshold, course).iterator();
+            appendLowAttendancePage(result, students);
+            return result.toString();
+        }
+        
+        String nextPage() {
+            StringBuilder page = new StringBuilder();
+            appendLowAttendancePage(page, students);
+            return page.toString();
+        }
+        
+        boolean hasMore() {
+            return students.hasNext();
+        }
+    }
+    
+    // Appends up to LOW_ATTENDANCE_PAGE_SIZE students; the iterator tells whether more remain
+    private void appendLowAttendancePage(StringBuilder result, Iterator<Student> students) {
+        int count = 0;
+        while (count < LOW_ATTENDANCE_PAGE_SIZE && students.hasNext()) {
+            Student s = students.next();
+            result.append(String.format("%s - %s\n  Course: %s\n  Attendance: %.2f%% (%d/%d sessions)\n\n", 
+                s.getId(), s.getName(), s.getCourse(), s.getAttendancePercentage(), 
+                s.getTotalSessionsAttended(), s.getTotalSessions()));
+            count++;
+        }
+    }
+    
+    private void exportLowAttendanceToCSV(double threshold, String course) {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Save Low Attendance Report");
         fileChooser.setSelectedFile(new File("Low_Attendance_Report_" + 
@@ -329,7 +419,8 @@ public class StudentActions {
             writer.println();
             writer.println("Student_ID,Student_Name,Course,Total_Sessions,Sessions_Attended,Attendance_Percentage,Status");
             
-            for (Student s : students) {
+            int exported = 0;
+            for (Student s : system.getStudentsBelow(threshold, course)) {
                 double percentage = s.getAttendancePercentage();
                 String status;
                 if (percentage > 80) {
@@ -351,16 +442,17 @@ public class StudentActions {
                     percentage,
                     status
                 );
+                exported++;
             }
             
             writer.println();
-            writer.println("Total Students with Low Attendance: " + students.size());
+            writer.println("Total Students with Low Attendance: " + exported);
             
             JOptionPane.showMessageDialog(parentComponent, 
                 "Low attendance report exported successfully!\n" +
                 "File: " + selectedFile.getName() + "\n" +
                 "Location: " + selectedFile.getParent() + "\n" +
-                "Students: " + students.size(), 
+                "Students: " + exported, 
                 "Export Successful", JOptionPane.INFORMATION_MESSAGE);
                 
         } catch (IOException e) {
@@ -0,0 +1,129 @@
+package AttendanceSystem.ui;
+
+import AttendanceSystem.Student;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table model over the students shown in TablePanel.
+ * Cell values are computed when a row is painted. setStudents() compares the
+ * new roster with the previous one and fires row-level insert, delete and
+ * update events, so unchanged rows keep their selection and are not repainted.
+ */
+public class StudentTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"ID", "Name", "Course", "Sessions", "Attended", "Attendance", "Status"};
+
+    private List<Student> rows = new ArrayList<>();
+    private long[] snapshots = new long[0];   // Aggregates each row was last shown with
+
+    /**
+     * Shows the given students, firing events only for the rows that changed.
+     */
+    public void setStudents(List<Student> students) {
+        List<Student> oldRows = rows;
+        long[] oldSnapshots = snapshots;
+        rows = new ArrayList<>(students);
+        snapshots = new long[rows.size()];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = snapshotOf(rows.get(i));
+        }
+
+        // Rows before the first and after the last differing ID are the same students
+        int prefix = 0;
+        int limit = Math.min(oldRows.size(), rows.size());
+        while (prefix < limit && sameId(oldRows.get(prefix), rows.get(prefix))) prefix++;
+        int suffix = 0;
+        while (suffix < limit - prefix
+                && sameId(oldRows.get(oldRows.size() - 1 - suffix), rows.get(rows.size() - 1 - suffix))) suffix++;
+
+        // The differing middle is reported as updated rows plus one insert or delete
+        int oldMiddle = oldRows.size() - prefix - suffix;
+        int newMiddle = rows.size() - prefix - suffix;
+        int overlap = Math.min(oldMiddle, newMiddle);
+        if (oldMiddle > newMiddle) {
+            fireTableRowsDeleted(prefix + overlap, prefix + oldMiddle - 1);
+        } else if (newMiddle > oldMiddle) {
+            fireTableRowsInserted(prefix + overlap, prefix + newMiddle - 1);
+        }
+        if (overlap > 0) {
+            fireTableRowsUpdated(prefix, prefix + overlap - 1);
+        }
+
+        for (int i = 0; i < prefix; i++) {
+            fireIfChanged(i, oldRows.get(i), oldSnapshots[i]);
+        }
+        for (int i = 0; i < suffix; i++) {
+            int oldIndex = oldRows.size() - suffix + i;
+            fireIfChanged(rows.size() - suffix + i, oldRows.get(oldIndex), oldSnapshots[oldIndex]);
+        }
+    }
+
+    private void fireIfChanged(int row, Student previous, long previousSnapshot) {
+        // A reloaded record is a new object and may have a new name or course
+        if (rows.get(row) != previous || snapshots[row] != previousSnapshot) {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    private static boolean sameId(Student a, Student b) {
+        return a.getId().equals(b.getId());
+    }
+
+    private static long snapshotOf(Student s) {
+        return ((long) s.getTotalSessions() << 32) | s.getTotalSessionsAttended();
+    }
+
+    public Student getStudentAt(int row) {
+        return rows.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Student s = rows.get(row);
+        switch (column) {
+            case 0: return s.getId();
+            case 1: return s.getName();
+            case 2: return truncateText(s.getCourse(), 35);
+            case 3: return s.getTotalSessions();
+            case 4: return s.getTotalSessionsAttended();
+            case 5: return String.format("%.1f%%", s.getAttendancePercentage());
+            case 6: return statusOf(s);
+            default: return null;
+        }
+    }
+
+    private static String statusOf(Student s) {
+        if (s.getTotalSessions() == 0) return "N/A";
+        double percentage = s.getAttendancePercentage();
+        if (percentage > 80) return "Excellent";
+        if (percentage >= 70) return "Good";
+        if (percentage >= 60) return "Warning";
+        return "Critical";
+    }
+
+    private static String truncateText(String text, int maxLength) {
+        if (text.length() <= maxLength) return text;
+        return text.substring(0, maxLength - 3) + "...";
+    }
+}
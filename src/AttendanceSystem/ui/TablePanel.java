@@ -8,12 +8,13 @@ import AttendanceSystem.AssignmentSubmission;
 import AttendanceSystem.Event; // Explicit import to fix ambiguity
 import AttendanceSystem.EventPhoto;
 import AttendanceSystem.MainGUI;
+import AttendanceSystem.DataChange;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Panel for displaying all students in a table view.
@@ -21,7 +22,7 @@ import java.util.ArrayList;
  */
 public class TablePanel extends BasePanel {
     private JTable studentTable;
-    private DefaultTableModel tableModel;
+    private StudentTableModel tableModel;
     
     public TablePanel(AttendanceSystem system, User currentUser) {
         super(system, currentUser);
@@ -73,13 +74,7 @@ public class TablePanel extends BasePanel {
         card.add(headerPanel, BorderLayout.NORTH);
         
         // Table
-        String[] columns = {"ID", "Name", "Course", "Sessions", "Attended", "Attendance", "Status"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new StudentTableModel();
         
         studentTable = new JTable(tableModel) {
             @Override
@@ -377,6 +372,12 @@ public class TablePanel extends BasePanel {
         return item;
     }
     
+    @Override
+    public boolean dependsOn(DataChange change) {
+        // The student dashboard also lists pending assignments and event photos
+        return change == DataChange.STUDENTS || "STUDENT".equals(currentUser.getRole());
+    }
+    
     @Override
     public void onShow() {
         refreshData();
@@ -391,8 +392,6 @@ public class TablePanel extends BasePanel {
             return;
         }
         
-        tableModel.setRowCount(0);
-        Student[] students = system.getAllStudents();
         String currentFilter = "All Courses";
         
         // Get filter from parent if possible
@@ -401,37 +400,10 @@ public class TablePanel extends BasePanel {
             currentFilter = ((MainGUI) window).getCurrentCourseFilter();
         }
         
-        for (Student s : students) {
-            // Apply filter
-            if (!currentFilter.equals("All Courses") && !s.getCourse().equals(currentFilter)) {
-                continue;
-            }
-            
-            double percentage = s.getAttendancePercentage();
-            String status;
-            if (s.getTotalSessions() == 0) {
-                status = "N/A";
-            } else if (percentage > 80) status = "Excellent";
-            else if (percentage >= 70) status = "Good";
-            else if (percentage >= 60) status = "Warning";
-            else status = "Critical";
-            
-            Object[] row = {
-                s.getId(),
-                s.getName(),
-                truncateText(s.getCourse(), 35),
-                s.getTotalSessions(),
-                s.getTotalSessionsAttended(),
-                String.format("%.1f%%", percentage),
-                status
-            };
-            
-            tableModel.addRow(row);
-        }
-    }
-    
-    private String truncateText(String text, int maxLength) {
-        if (text.length() <= maxLength) return text;
-        return text.substring(0, maxLength - 3) + "...";
+        // Only rows whose student or aggregates changed are repainted
+        List<Student> students = currentFilter.equals("All Courses")
+            ? Arrays.asList(system.getAllStudents())
+            : system.getStudentsInCourse(currentFilter);
+        tableModel.setStudents(students);
     }
-}
\ No newline at end of file
+}
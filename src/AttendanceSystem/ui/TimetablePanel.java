@@ -129,29 +129,24 @@ public class TimetablePanel extends BasePanel {
             
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
                 String line;
-                system.clearCourseTimetable(targetCourse);
-                int count = 0;
-                java.util.Set<String> newTeachers = new java.util.HashSet<>();
+                List<ClassSession> sessions = new ArrayList<>();
+                boolean firstLine = true;
                 
+                // Read every row first; the course timetable is only replaced once all rows are valid
                 while ((line = reader.readLine()) != null) {
                     // Format: DAY,TIME,SUBJECT,TEACHER,ROOM
                     String[] parts = line.split(",");
-                    if (parts.length >= 5) {
+                    boolean header = firstLine && parts.length > 0 && parts[0].trim().equalsIgnoreCase("DAY");
+                    firstLine = false;
+                    if (parts.length >= 5 && !header) {
                         String teacherName = parts[3].trim();
-                        // Check if teacher exists before adding session
-                        boolean teacherExisted = AuthenticationManager.teacherExists(teacherName);
-                        
-                        ClassSession session = new ClassSession(parts[0].trim(), parts[1].trim(), parts[2].trim(), teacherName, parts[4].trim(), targetCourse);
-                        system.addSessionToCourse(targetCourse, session);
-                        count++;
-                        
-                        // Track newly created teachers
-                        if (!teacherExisted && !teacherName.isEmpty()) {
-                            newTeachers.add(teacherName.toUpperCase());
-                        }
+                        sessions.add(new ClassSession(parts[0].trim().toUpperCase(), parts[1].trim(), parts[2].trim(), teacherName, parts[4].trim(), targetCourse));
                     }
                 }
                 
+                java.util.Set<String> newTeachers = system.replaceCourseTimetable(targetCourse, sessions);
+                int count = sessions.size();
+                
                 // Build success message
                 StringBuilder message = new StringBuilder();
                 message.append("Successfully imported ").append(count).append(" sessions for ").append(targetCourse);
@@ -194,7 +189,7 @@ public class TimetablePanel extends BasePanel {
         boolean hasContent = false;
         
         for (String day : days) {
-            ArrayList<ClassSession> sessions = system.getSessionsByDay(day, selectedCourse);
+            List<ClassSession> sessions = system.getSessionsByDay(day, selectedCourse);
             if (!sessions.isEmpty()) {
                 JPanel dayCard = createDayCard(day, sessions);
                 timetableContent.add(dayCard);
@@ -216,7 +211,7 @@ public class TimetablePanel extends BasePanel {
         timetableContent.repaint();
     }
     
-    private JPanel createDayCard(String day, ArrayList<ClassSession> sessions) {
+    private JPanel createDayCard(String day, List<ClassSession> sessions) {
         JPanel dayCard = new JPanel(new BorderLayout(0, DesignSystem.SPACING_SM)) {
             @Override
             protected void paintComponent(Graphics g) {
@@ -348,6 +343,12 @@ public class TimetablePanel extends BasePanel {
         }
     }
     
+    @Override
+    public boolean dependsOn(DataChange change) {
+        // Course list comes from both timetables and student records
+        return change == DataChange.TIMETABLES || change == DataChange.STUDENTS;
+    }
+    
     @Override
     public void onShow() {
         // Refresh dropdown in case courses changed